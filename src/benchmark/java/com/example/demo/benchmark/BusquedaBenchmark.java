@@ -0,0 +1,43 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entidad.Archivo;
+import com.example.demo.utils.ArchivoConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code buscarPorNombre} con el índice de n-gramas ya cargado, por subcadena y por prefijo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BusquedaBenchmark {
+
+    @Benchmark
+    public List<Archivo> subcadena(Catalogo catalogo) {
+        String palabra = palabra();
+        return catalogo.archivoService.buscarPorNombre(palabra.substring(1, palabra.length() - 1), false, 0,
+                ArchivoConstants.LIMITE_PAGINA_DEFECTO);
+    }
+
+    @Benchmark
+    public List<Archivo> prefijo(Catalogo catalogo) {
+        return catalogo.archivoService.buscarPorNombre(palabra().substring(0, 3), true, 0,
+                ArchivoConstants.LIMITE_PAGINA_DEFECTO);
+    }
+
+    private static String palabra() {
+        return Catalogo.PALABRAS[ThreadLocalRandom.current().nextInt(Catalogo.PALABRAS.length)];
+    }
+}
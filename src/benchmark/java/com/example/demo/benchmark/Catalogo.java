@@ -0,0 +1,134 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.FileManagerApplication;
+import com.example.demo.dto.ResultadoSubida;
+import com.example.demo.service.ArchivoService;
+import com.example.demo.service.DescargaService;
+import com.example.demo.service.EstadisticasService;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.TipoMime;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Aplicación arrancada sin servidor web sobre H2 en modo MySQL y con un catálogo sembrado a
+ * través de {@link ArchivoService}, como lo dejarían las subidas reales. Las fechas de subida
+ * se reparten por el último año. La semilla es fija: con los mismos parámetros el catálogo es
+ * el mismo y los resultados se pueden comparar entre versiones.
+ */
+@State(Scope.Benchmark)
+public class Catalogo {
+
+    public static final String[] PALABRAS = {
+            "informe", "factura", "contrato", "presupuesto", "acta", "nomina", "plano", "inventario",
+            "memoria", "propuesta", "balance", "auditoria", "catalogo", "manual", "licencia", "pedido"
+    };
+    private static final String[] CALIFICATIVOS = {
+            "anual", "mensual", "trimestral", "final", "borrador", "revisado", "firmado", "cliente"
+    };
+    private static final long SEMILLA = 20250101L;
+    private static final int SEGUNDOS_ANIO = 365 * 24 * 3600;
+
+    @Param({"1000", "10000"})
+    public int archivos;
+
+    @Param({"PEQUENA"})
+    public DistribucionTamanos distribucion;
+
+    // bd guarda el contenido en H2 (memoria del proceso); para catálogos grandes, sistema-archivos
+    @Param({"bd"})
+    public String almacen;
+
+    public ArchivoService archivoService;
+    public DescargaService descargaService;
+    public long[] ids;
+    public long tamanoMediano;
+    public LocalDateTime ahora;
+
+    private ConfigurableApplicationContext contexto;
+    private Path directorio;
+
+    @Setup(Level.Trial)
+    public void arrancar() throws IOException {
+        directorio = Files.createTempDirectory("benchmark-");
+        contexto = new SpringApplicationBuilder(FileManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run("--archivos.almacen.tipo=" + almacen,
+                        "--archivos.almacen.directorio=" + directorio.resolve("almacen"),
+                        "--archivos.subida.directorio=" + directorio.resolve("subidas"));
+        archivoService = contexto.getBean(ArchivoService.class);
+        descargaService = contexto.getBean(DescargaService.class);
+        sembrar();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException {
+        contexto.close();
+        FileSystemUtils.deleteRecursively(directorio);
+    }
+
+    public static String tipo(int posicion) {
+        return TipoMime.values()[posicion % TipoMime.values().length].getMime();
+    }
+
+    public static MultipartFile archivo(String nombre, String tipo, byte[] contenido) {
+        return new MockMultipartFile("archivo", nombre, tipo, contenido);
+    }
+
+    private void sembrar() throws IOException {
+        RandomGenerator aleatorio = new SplittableRandom(SEMILLA);
+        List<Long> guardados = new ArrayList<>(archivos);
+        List<Long> tamanos = new ArrayList<>(archivos);
+        for (int inicio = 0; inicio < archivos; inicio += ArchivoConstants.MAX_ARCHIVOS_LOTE) {
+            int fin = Math.min(archivos, inicio + ArchivoConstants.MAX_ARCHIVOS_LOTE);
+            List<MultipartFile> lote = new ArrayList<>(fin - inicio);
+            List<String> descripciones = new ArrayList<>(fin - inicio);
+            for (int i = inicio; i < fin; i++) {
+                byte[] contenido = new byte[distribucion.tamano(aleatorio)];
+                aleatorio.nextBytes(contenido);
+                String palabra = PALABRAS[aleatorio.nextInt(PALABRAS.length)];
+                String calificativo = CALIFICATIVOS[aleatorio.nextInt(CALIFICATIVOS.length)];
+                lote.add(archivo(palabra + "-" + calificativo + "-" + i, tipo(i), contenido));
+                descripciones.add(palabra + " " + calificativo + " del departamento " + (i % 40));
+                tamanos.add((long) contenido.length);
+            }
+            for (ResultadoSubida resultado : archivoService.guardarLote(lote, descripciones)) {
+                guardados.add(resultado.id());
+            }
+        }
+        ids = guardados.stream().mapToLong(Long::longValue).toArray();
+        tamanoMediano = tamanos.stream().sorted().toList().get(tamanos.size() / 2);
+
+        // Todo se acaba de subir: se reparten las fechas por el último año para que los filtros
+        // y órdenes por fecha trabajen sobre datos realistas
+        contexto.getBean(JdbcTemplate.class).update(
+                "UPDATE archivos SET fecha_subida = TIMESTAMPADD(SECOND, -MOD(codigo * 7919, ?), fecha_subida)",
+                SEGUNDOS_ANIO);
+        contexto.getBean(EstadisticasService.class).reconstruir();
+        CacheManager cacheManager = contexto.getBean(CacheManager.class);
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+        ahora = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entidad.Archivo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Descarga de un archivo al azar del catálogo: metadatos (con la caché por id) y escritura del
+ * cuerpo completo. La petición no anuncia sendfile, así que los bytes siempre pasan por la JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class DescargaBenchmark {
+
+    @Benchmark
+    public Archivo obtenerArchivo(Catalogo catalogo) {
+        return catalogo.archivoService.obtenerArchivo(azar(catalogo));
+    }
+
+    @Benchmark
+    public ResponseEntity<StreamingResponseBody> descargar(Catalogo catalogo) throws IOException {
+        Archivo archivo = catalogo.archivoService.obtenerArchivo(azar(catalogo));
+        return escribir(catalogo.descargaService.descargar(archivo, new MockHttpServletRequest()));
+    }
+
+    @Benchmark
+    public ResponseEntity<StreamingResponseBody> descargarRango(Catalogo catalogo) throws IOException {
+        Archivo archivo = catalogo.archivoService.obtenerArchivo(azar(catalogo));
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.addHeader(HttpHeaders.RANGE, "bytes=" + archivo.getTamano() / 2 + "-");
+        return escribir(catalogo.descargaService.descargar(archivo, peticion));
+    }
+
+    private static long azar(Catalogo catalogo) {
+        return catalogo.ids[ThreadLocalRandom.current().nextInt(catalogo.ids.length)];
+    }
+
+    private static ResponseEntity<StreamingResponseBody> escribir(ResponseEntity<StreamingResponseBody> respuesta) throws IOException {
+        respuesta.getBody().writeTo(OutputStream.nullOutputStream());
+        return respuesta;
+    }
+}
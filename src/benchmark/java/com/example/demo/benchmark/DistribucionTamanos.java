@@ -0,0 +1,27 @@
+package com.example.demo.benchmark;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Tamaños del contenido generado. Siguen una distribución log-uniforme entre el mínimo y el
+ * máximo: abundan los archivos pequeños y hay unos pocos grandes, como en un catálogo real.
+ */
+public enum DistribucionTamanos {
+
+    PEQUENA(1024, 64 * 1024),
+    MIXTA(1024, 1024 * 1024),
+    GRANDE(512 * 1024, 8 * 1024 * 1024);
+
+    private final int minimo;
+    private final int maximo;
+
+    DistribucionTamanos(int minimo, int maximo) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+    }
+
+    public int tamano(RandomGenerator aleatorio) {
+        double logaritmo = aleatorio.nextDouble(Math.log(minimo), Math.log(maximo));
+        return (int) Math.round(Math.exp(logaritmo));
+    }
+}
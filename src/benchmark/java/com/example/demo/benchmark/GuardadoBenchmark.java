@@ -0,0 +1,65 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entidad.Archivo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subida de un archivo nuevo: validación, hash, escritura del contenido, fila, estadísticas e
+ * índice de nombres. El catálogo crece con cada invocación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class GuardadoBenchmark {
+
+    private static final int CONTENIDOS = 32;
+
+    @State(Scope.Thread)
+    public static class Contenidos {
+
+        byte[][] contenidos;
+        long contador;
+
+        @Setup(Level.Trial)
+        public void generar(Catalogo catalogo) {
+            SplittableRandom aleatorio = new SplittableRandom();
+            contenidos = new byte[CONTENIDOS][];
+            for (int i = 0; i < CONTENIDOS; i++) {
+                contenidos[i] = new byte[Math.max(Long.BYTES, catalogo.distribucion.tamano(aleatorio))];
+                aleatorio.nextBytes(contenidos[i]);
+            }
+        }
+
+        // Cambia los primeros bytes para que cada subida sea contenido nuevo y no un duplicado
+        byte[] siguiente() {
+            byte[] contenido = contenidos[(int) (contador % CONTENIDOS)];
+            ByteBuffer.wrap(contenido).putLong(0, contador++);
+            return contenido;
+        }
+    }
+
+    @Benchmark
+    public Archivo guardarArchivo(Catalogo catalogo, Contenidos contenidos) throws IOException {
+        int posicion = (int) contenidos.contador;
+        return catalogo.archivoService.guardarArchivo(
+                Catalogo.archivo("subida-" + posicion, Catalogo.tipo(posicion), contenidos.siguiente()),
+                "subida del benchmark");
+    }
+}
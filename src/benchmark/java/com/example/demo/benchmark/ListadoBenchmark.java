@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.dto.OrdenArchivos;
+import com.example.demo.dto.PaginaArchivos;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.TipoMime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Los listados y órdenes de {@code ArchivoService}, cada uno sobre el catálogo completo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ListadoBenchmark {
+
+    private static final String TIPO = TipoMime.PDF.getMime();
+
+    @Benchmark
+    public List<Archivo> obtenerTodos(Catalogo catalogo) {
+        return catalogo.archivoService.obtenerTodos();
+    }
+
+    @Benchmark
+    public List<Archivo> ultimos10Archivos(Catalogo catalogo) {
+        return catalogo.archivoService.ultimos10Archivos();
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorTipo(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorTipo(TIPO);
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorTipoFechaAsc(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorTipoFechaAsc(TIPO);
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorTipoFechaDesc(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorTipoFechaDesc(TIPO);
+    }
+
+    @Benchmark
+    public List<Archivo> archivosPorTamano(Catalogo catalogo) {
+        return catalogo.archivoService.archivosPorTamano(catalogo.tamanoMediano);
+    }
+
+    @Benchmark
+    public List<Archivo> archivosEntreFechas(Catalogo catalogo) {
+        return catalogo.archivoService.archivosEntreFechas(catalogo.ahora.minusDays(30), catalogo.ahora);
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorTamanoAsc(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorTamanoAsc();
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorTamanoDesc(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorTamanoDesc();
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorNombreAsc(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorNombreAsc();
+    }
+
+    @Benchmark
+    public List<Archivo> listarPorNombreDesc(Catalogo catalogo) {
+        return catalogo.archivoService.listarPorNombreDesc();
+    }
+
+    @Benchmark
+    public PaginaArchivos buscarPrimeraPagina(Catalogo catalogo) {
+        return catalogo.archivoService.buscar(FiltroArchivos.vacio(), OrdenArchivos.FECHA, Sort.Direction.DESC,
+                null, ArchivoConstants.LIMITE_PAGINA_DEFECTO);
+    }
+
+    @Benchmark
+    public PaginaArchivos buscarPorTipoYTamano(Catalogo catalogo) {
+        FiltroArchivos filtro = new FiltroArchivos(TIPO, catalogo.tamanoMediano, null, null, null, null);
+        return catalogo.archivoService.buscar(filtro, OrdenArchivos.TAMANO, Sort.Direction.ASC,
+                null, ArchivoConstants.LIMITE_PAGINA_DEFECTO);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.admision")
+public class AdmisionProperties {
+
+    private boolean habilitada = true;
+
+    private int subidasConcurrentes = 8;
+
+    /**
+     * Bytes de subidas que se procesan a la vez, según el Content-Length de cada petición.
+     */
+    private DataSize presupuesto = DataSize.ofMegabytes(128);
+
+    /**
+     * Tiempo que una subida espera turno antes de rechazarse con 429.
+     */
+    private Duration esperaMaxima = Duration.ofSeconds(2);
+
+    private Duration reintentarEn = Duration.ofSeconds(5);
+
+    /**
+     * Ancho de banda de descarga por cliente (IP); 0 sin límite.
+     */
+    private DataSize descargaPorCliente = DataSize.ofBytes(0);
+}
@@ -0,0 +1,80 @@
+package com.example.demo.config;
+
+import com.example.demo.service.admision.ControlAdmision;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.Mensajes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Control de admisión de las subidas. Va como filtro, antes de que se lea el cuerpo: una subida
+ * rechazada responde 429 con Retry-After sin haber ocupado disco ni memoria.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmisionSubidasFilter extends OncePerRequestFilter {
+
+    private static final String RUTA_FRAGMENTOS = "/api/subidas/*/fragmentos";
+
+    private final ControlAdmision controlAdmision;
+    private final AntPathMatcher rutas = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !controlAdmision.isHabilitada() || !esSubida(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Sin Content-Length (chunked) se cuenta el tamaño máximo de un archivo
+        long bytes = request.getContentLengthLong() >= 0 ? request.getContentLengthLong() : ArchivoConstants.MAX_SIZE;
+        Optional<ControlAdmision.Permiso> permiso;
+        try {
+            permiso = controlAdmision.admitir(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Subida interrumpida esperando turno");
+        }
+        if (permiso.isEmpty()) {
+            long segundos = controlAdmision.segundosParaReintentar();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(String.format(Mensajes.SUBIDAS_SATURADAS, segundos));
+            return;
+        }
+        try (ControlAdmision.Permiso reservado = permiso.get()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    // Formularios multipart (subida simple, lote, actualización) y fragmentos de subidas reanudables
+    private boolean esSubida(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        if (!HttpMethod.POST.matches(metodo) && !HttpMethod.PUT.matches(metodo)) {
+            return false;
+        }
+        String tipo = request.getContentType();
+        if (tipo != null && tipo.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            return true;
+        }
+        return HttpMethod.PUT.matches(metodo) && rutas.match(RUTA_FRAGMENTOS, request.getRequestURI().substring(request.getContextPath().length()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.config;
+
+import com.example.demo.service.almacenamiento.AlmacenContenido;
+import com.example.demo.service.almacenamiento.AlmacenContenidoBaseDatos;
+import com.example.demo.service.almacenamiento.AlmacenContenidoSistemaArchivos;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class AlmacenamientoConfig {
+
+    @Bean
+    public AlmacenContenidoBaseDatos almacenContenidoBaseDatos(JdbcTemplate jdbcTemplate) {
+        return new AlmacenContenidoBaseDatos(jdbcTemplate);
+    }
+
+    @Bean
+    public AlmacenContenidoSistemaArchivos almacenContenidoSistemaArchivos(AlmacenamientoProperties properties) {
+        return new AlmacenContenidoSistemaArchivos(properties.getDirectorio());
+    }
+
+    @Bean
+    @Primary
+    public AlmacenContenido almacenContenido(AlmacenamientoProperties properties,
+                                             AlmacenContenidoBaseDatos baseDatos,
+                                             AlmacenContenidoSistemaArchivos sistemaArchivos) {
+        return properties.getTipo() == AlmacenamientoProperties.Tipo.SISTEMA_ARCHIVOS ? sistemaArchivos : baseDatos;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.almacen")
+public class AlmacenamientoProperties {
+
+    public enum Tipo {
+        BD,
+        SISTEMA_ARCHIVOS
+    }
+
+    private Tipo tipo = Tipo.BD;
+
+    private Path directorio = Path.of("almacen");
+
+    private int tamanoLoteMigracion = 50;
+
+    /**
+     * Elimina la columna antigua {@code archivos.archivo} tras copiar su contenido. No se puede
+     * deshacer: conviene activarlo solo después de comprobar la migración.
+     */
+    private boolean eliminarColumnaLegada = false;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.cache")
+public class CacheArchivosProperties {
+
+    private long tamanoMaximo = 10_000;
+
+    private Duration expiracion = Duration.ofMinutes(10);
+
+    private Duration expiracionUltimos = Duration.ofMinutes(1);
+}
@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import com.example.demo.utils.ArchivoConstants;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Caffeine desaloja con W-TinyLFU al llegar al tamaño máximo. Las invalidaciones se aplazan
+     * hasta el commit: antes, cualquier lectura durante la transacción volvería a cachear el
+     * estado anterior. Aun así, una lectura que empezó antes del commit puede guardarlo después
+     * del desalojo; ese dato queda hasta que expira la entrada.
+     */
+    @Bean
+    public CacheManager cacheManager(CacheArchivosProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(ArchivoConstants.CACHE_ARCHIVOS, Caffeine.newBuilder()
+                .maximumSize(properties.getTamanoMaximo())
+                .expireAfterWrite(properties.getExpiracion())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(properties.getExpiracionUltimos())
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
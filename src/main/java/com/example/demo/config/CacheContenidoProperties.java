@@ -0,0 +1,16 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.cache-contenido")
+public class CacheContenidoProperties {
+
+    private boolean habilitada = false;
+
+    private DataSize presupuesto = DataSize.ofMegabytes(64);
+
+    private DataSize tamanoMaximoEntrada = DataSize.ofMegabytes(4);
+}
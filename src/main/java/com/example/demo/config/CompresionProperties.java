@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import com.example.demo.entidad.Codec;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.compresion")
+public class CompresionProperties {
+
+    private boolean habilitada = false;
+
+    /**
+     * Tipos MIME que se comprimen. JPEG, PNG y los formatos OOXML ya van comprimidos.
+     */
+    private List<String> tipos = new ArrayList<>(List.of(
+            "application/pdf",
+            "application/msword",
+            "application/vnd.ms-excel",
+            "application/vnd.ms-powerpoint"));
+
+    private int nivel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Ahorro mínimo, en porcentaje, para guardar el contenido comprimido.
+     */
+    private int ahorroMinimo = 10;
+
+    public Codec codecPara(String tipoMime) {
+        return habilitada && tipos.contains(tipoMime) ? Codec.DEFLATE : Codec.NINGUNO;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.descarga")
+public class DescargaProperties {
+
+    /**
+     * Cache-Control por tipo MIME; admite comodines como {@code image/*}.
+     */
+    private Map<String, String> cacheControl = new HashMap<>();
+
+    private String cacheControlDefecto = "no-cache";
+
+    public String cacheControlPara(String tipoMime) {
+        if (tipoMime == null) {
+            return cacheControlDefecto;
+        }
+        String politica = cacheControl.get(tipoMime);
+        if (politica == null) {
+            int barra = tipoMime.indexOf('/');
+            politica = barra > 0 ? cacheControl.get(tipoMime.substring(0, barra) + "/*") : null;
+        }
+        return politica != null ? politica : cacheControlDefecto;
+    }
+}
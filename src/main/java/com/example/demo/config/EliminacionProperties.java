@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import com.example.demo.utils.TipoMime;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.eliminacion")
+public class EliminacionProperties {
+
+    /**
+     * Archivos por transacción en las eliminaciones masivas y en la retención.
+     */
+    private int tamanoLote = 500;
+
+    /**
+     * Pausa entre lotes de la retención, para no competir con el tráfico normal.
+     */
+    private Duration pausaEntreLotes = Duration.ofMillis(100);
+
+    /**
+     * Antigüedad máxima por tipo MIME; los tipos que no aparecen se conservan siempre.
+     */
+    private Map<String, Duration> retencion = new HashMap<>();
+
+    public Map<String, Duration> retencionPorTipo() {
+        Map<String, Duration> porTipo = new HashMap<>();
+        retencion.forEach((tipo, antiguedad) -> porTipo.put(TipoMime.normalizar(tipo), antiguedad));
+        return porTipo;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.EstadoReplica;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envía las transacciones de solo lectura a las réplicas (por turnos) y todo lo demás a la
+ * primaria. Un cliente que acaba de escribir lee de la primaria durante
+ * {@code permanencia-tras-escritura}, y una réplica que no responde deja de recibir lecturas
+ * hasta que vuelve a pasar la comprobación de salud.
+ * <p>
+ * Tiene que ir detrás de un {@code LazyConnectionDataSourceProxy}: la conexión se pide al
+ * ejecutar la primera sentencia, cuando ya se sabe si la transacción es de solo lectura.
+ */
+@Slf4j
+public class EnrutadorDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARIA = "primaria";
+    private static final String SIN_PETICION = "-";
+    // Marca de la transacción en curso que lee de una réplica
+    private static final Object LECTURA_EN_REPLICA = new Object();
+
+    private final HikariDataSource primaria;
+    private final List<Replica> replicas;
+    private final Map<Object, Replica> porNombre = new HashMap<>();
+    private final ReplicasProperties properties;
+    private final Cache<String, Boolean> escriturasRecientes;
+    private final AtomicInteger turno = new AtomicInteger();
+    // Marca de la transacción en curso que ya tiene registrada su escritura
+    private final Object escrituraRegistrada = new Object();
+
+    public EnrutadorDataSource(HikariDataSource primaria, List<HikariDataSource> replicas, ReplicasProperties properties) {
+        this.primaria = primaria;
+        this.properties = properties;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.escriturasRecientes = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getPermanenciaTrasEscritura())
+                .build();
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        for (Replica replica : this.replicas) {
+            destinos.put(replica.nombre, replica.dataSource);
+            porNombre.put(replica.nombre, replica);
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primaria);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        comprobarReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // Sin transacción (esquema, secuencias, JdbcTemplate suelto) no se sabe si se va a escribir
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARIA;
+        }
+        String cliente = cliente();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registrarEscritura(cliente);
+            return PRIMARIA;
+        }
+        if (escriturasRecientes.getIfPresent(cliente) != null) {
+            return PRIMARIA;
+        }
+        return siguienteReplica().map(replica -> replica.nombre).orElse(PRIMARIA);
+    }
+
+    // Si la réplica elegida no da conexión se marca caída y la lectura sigue en la primaria
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = porNombre.get(determineCurrentLookupKey());
+        if (replica == null) {
+            return primaria.getConnection();
+        }
+        try {
+            Connection conexion = replica.dataSource.getConnection();
+            replica.lecturas.incrementAndGet();
+            registrarLecturaEnReplica(replica);
+            return conexion;
+        } catch (SQLException e) {
+            marcarCaida(replica, e);
+            return primaria.getConnection();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${archivos.replicas.intervalo-salud:PT10S}")
+    public void comprobarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conexion = replica.dataSource.getConnection();
+                 Statement sentencia = conexion.createStatement()) {
+                sentencia.setQueryTimeout((int) Math.max(1, properties.getTimeoutSalud().toSeconds()));
+                sentencia.execute(properties.getConsultaSalud());
+                if (!replica.sana) {
+                    replica.sana = true;
+                    log.info("Réplica {} disponible para lecturas", replica.nombre);
+                }
+            } catch (SQLException e) {
+                marcarCaida(replica, e);
+            }
+        }
+    }
+
+    /**
+     * Si la transacción en curso lee de una réplica. Lo que devuelve puede ir por detrás de la
+     * primaria, así que no debe guardarse en cachés compartidas por todos los clientes.
+     */
+    public static boolean lecturaEnReplica() {
+        return TransactionSynchronizationManager.hasResource(LECTURA_EN_REPLICA);
+    }
+
+    public List<EstadoReplica> estado() {
+        return replicas.stream()
+                .map(replica -> new EstadoReplica(replica.nombre, replica.dataSource.getJdbcUrl(),
+                        replica.sana, replica.lecturas.get()))
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primaria.close();
+    }
+
+    private Optional<Replica> siguienteReplica() {
+        int inicio = Math.floorMod(turno.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (replica.sana) {
+                return Optional.of(replica);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Al confirmar la transacción el cliente queda pegado a la primaria; si se deshace no hace falta
+    private void registrarEscritura(String cliente) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(escrituraRegistrada)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(escrituraRegistrada, cliente);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                escriturasRecientes.put(cliente, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(escrituraRegistrada);
+            }
+        });
+    }
+
+    private static void registrarLecturaEnReplica(Replica replica) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(LECTURA_EN_REPLICA)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(LECTURA_EN_REPLICA, replica.nombre);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LECTURA_EN_REPLICA);
+            }
+        });
+    }
+
+    private void marcarCaida(Replica replica, SQLException e) {
+        if (replica.sana) {
+            replica.sana = false;
+            log.warn("Réplica {} fuera de servicio, sus lecturas van a la primaria: {}", replica.nombre, e.getMessage());
+        }
+    }
+
+    private static String cliente() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : SIN_PETICION;
+    }
+
+    private static final class Replica {
+
+        private final String nombre;
+        private final HikariDataSource dataSource;
+        private final AtomicLong lecturas = new AtomicLong();
+        private volatile boolean sana;
+
+        private Replica(HikariDataSource dataSource) {
+            this.nombre = dataSource.getPoolName();
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.integridad")
+public class IntegridadProperties {
+
+    private boolean habilitada = true;
+
+    /**
+     * Bytes por segundo que la verificación puede leer del almacén.
+     */
+    private DataSize tasa = DataSize.ofMegabytes(4);
+
+    /**
+     * Cada cuánto se verifica el siguiente lote de contenidos.
+     */
+    private Duration intervalo = Duration.ofMinutes(1);
+
+    private int tamanoLote = 100;
+
+    /**
+     * Lecturas fallidas seguidas (permisos, errores de E/S) tras las que un contenido se da por
+     * ilegible y la verificación sigue con el siguiente; hasta entonces se reintenta el mismo.
+     */
+    private int reintentosLectura = 3;
+
+    /**
+     * Espera entre el final de una pasada por todo el catálogo y el comienzo de la siguiente.
+     */
+    private Duration pausaEntrePasadas = Duration.ofDays(1);
+
+    /**
+     * Si está activa, los archivos con un problema abierto no se descargan (ni se incluyen en
+     * los ZIP) en lugar de enviar contenido dañado.
+     */
+    private boolean cuarentena = true;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import com.example.demo.service.VersionCatalogo;
+import com.example.demo.utils.EtagUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * ETag débil para los listados a partir de la versión del catálogo: mientras no cambie
+ * ningún archivo, la misma URL devuelve 304 sin consultar la base de datos.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListadoEtagInterceptor implements HandlerInterceptor {
+
+    private final VersionCatalogo versionCatalogo;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String etag = "W/\"" + versionCatalogo.actual() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && EtagUtils.coincide(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+}
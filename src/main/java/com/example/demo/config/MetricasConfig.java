@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import com.example.demo.service.admision.ControlAdmision;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+    // Necesario para que @Timed funcione fuera de los controladores
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder metricasAdmision(ControlAdmision controlAdmision) {
+        return registry -> {
+            Gauge.builder("archivos.admision.en_curso", controlAdmision, control -> control.estado().subidasEnCurso())
+                    .description("Subidas admitidas que se están procesando")
+                    .register(registry);
+            Gauge.builder("archivos.admision.bytes_en_curso", controlAdmision, control -> control.estado().bytesEnCurso())
+                    .description("Bytes reservados por las subidas en curso")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("archivos.admision.encoladas", controlAdmision, control -> control.estado().encoladas())
+                    .description("Subidas que tuvieron que esperar turno")
+                    .register(registry);
+            FunctionCounter.builder("archivos.admision.rechazadas", controlAdmision, control -> control.estado().rechazadas())
+                    .description("Subidas rechazadas con 429")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.miniaturas")
+public class MiniaturaProperties {
+
+    private boolean habilitadas = true;
+
+    /**
+     * Lado mayor de la miniatura en píxeles.
+     */
+    private int tamano = 256;
+
+    private float calidad = 0.8f;
+
+    private int hilos = 2;
+
+    /**
+     * Miniaturas en espera. Con la cola llena no se encolan más y cada una se genera cuando
+     * alguien la pide.
+     */
+    private int cola = 200;
+}
@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Con {@code archivos.replicas.habilitadas} el DataSource de la aplicación deja de ser el que
+ * configura Spring Boot y pasa a ser el enrutador entre la primaria ({@code spring.datasource})
+ * y las réplicas. Todos los pools toman los ajustes de {@code spring.datasource.hikari}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "archivos.replicas", name = "habilitadas", havingValue = "true")
+public class ReplicasConfig {
+
+    private static final String PREFIJO_HIKARI = "spring.datasource.hikari";
+
+    @Bean
+    public EnrutadorDataSource enrutadorDataSource(DataSourceProperties dataSourceProperties,
+                                                   ReplicasProperties replicasProperties,
+                                                   Environment environment) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primaria = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind(PREFIJO_HIKARI, Bindable.ofInstance(primaria));
+        primaria.setPoolName(EnrutadorDataSource.PRIMARIA);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicasProperties.Replica replica : replicasProperties.getLista()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword())
+                    .build();
+            binder.bind(PREFIJO_HIKARI, Bindable.ofInstance(pool));
+            pool.setPoolName("replica-" + (replicas.size() + 1));
+            // Una réplica caída no retiene la lectura más que la comprobación de salud
+            pool.setConnectionTimeout(replicasProperties.getTimeoutSalud().toMillis());
+            replicas.add(pool);
+        }
+        return new EnrutadorDataSource(primaria, replicas, replicasProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(EnrutadorDataSource enrutadorDataSource) {
+        return new LazyConnectionDataSourceProxy(enrutadorDataSource);
+    }
+}
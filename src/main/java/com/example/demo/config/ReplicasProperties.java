@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.replicas")
+public class ReplicasProperties {
+
+    private boolean habilitadas = false;
+
+    private List<Replica> lista = new ArrayList<>();
+
+    /**
+     * Tras una escritura, las lecturas del mismo cliente van a la primaria durante este tiempo
+     * para que vea lo que acaba de escribir aunque la réplica vaya con retraso.
+     */
+    private Duration permanenciaTrasEscritura = Duration.ofSeconds(5);
+
+    private Duration intervaloSalud = Duration.ofSeconds(10);
+
+    private Duration timeoutSalud = Duration.ofSeconds(2);
+
+    /**
+     * Consulta con la que se comprueba cada réplica; una réplica sin el esquema no sirve lecturas.
+     */
+    private String consultaSalud = "select 1 from archivos where 1 = 0";
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        // Sin usuario ni contraseña se usan los de spring.datasource
+        private String username;
+
+        private String password;
+    }
+}
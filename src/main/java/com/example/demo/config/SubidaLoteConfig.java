@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * El límite multipart por petición lo fija cada servlet, así que la subida por lotes tiene su
+ * propio {@link DispatcherServlet}, sobre el mismo contexto y mapeado solo a su ruta. El resto de
+ * subidas conserva el límite global de {@code spring.servlet.multipart}.
+ */
+@Configuration
+public class SubidaLoteConfig {
+
+    public static final String RUTA_LOTE = "/api/archivos/lote";
+
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> dispatcherServletLote(WebApplicationContext contexto,
+                                                                            MultipartProperties multipart,
+                                                                            SubidaProperties subidaProperties) {
+        ServletRegistrationBean<DispatcherServlet> registro =
+                new ServletRegistrationBean<>(new DispatcherServlet(contexto), RUTA_LOTE);
+        registro.setName("dispatcherServletLote");
+        registro.setLoadOnStartup(1);
+
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setLocation(multipart.getLocation());
+        factory.setFileSizeThreshold(multipart.getFileSizeThreshold());
+        factory.setMaxFileSize(multipart.getMaxFileSize());
+        factory.setMaxRequestSize(subidaProperties.getTamanoMaximoLote());
+        registro.setMultipartConfig(factory.createMultipartConfig());
+        return registro;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.subida")
+public class SubidaProperties {
+
+    private Path directorio = Path.of("subidas");
+
+    private DataSize tamanoMaximo = DataSize.ofGigabytes(2);
+
+    private DataSize tamanoMaximoFragmento = DataSize.ofMegabytes(16);
+
+    private Duration expiracion = Duration.ofHours(24);
+
+    /**
+     * Límite por petición de POST /api/archivos/lote; cada archivo sigue limitado por
+     * {@code spring.servlet.multipart.max-file-size}.
+     */
+    private DataSize tamanoMaximoLote = DataSize.ofMegabytes(512);
+}
@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "archivos.versiones")
+public class VersionesProperties {
+
+    /**
+     * Si está desactivado, actualizar un archivo sustituye su contenido sin guardar el anterior.
+     */
+    private boolean habilitadas = true;
+
+    /**
+     * Versiones anteriores que se conservan por archivo; al superarlas se eliminan las más
+     * antiguas. 0 conserva todas.
+     */
+    private int maximo = 20;
+}
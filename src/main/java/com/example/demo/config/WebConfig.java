@@ -0,0 +1,31 @@
+package com.example.demo.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ListadoEtagInterceptor listadoEtagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(listadoEtagInterceptor)
+                .addPathPatterns(
+                        "/archivos/listado",
+                        "/api/archivos",
+                        "/api/archivos/buscar",
+                        "/api/archivos/buscarPorNombre",
+                        "/api/archivos/ultimos",
+                        "/api/archivos/tipo",
+                        "/api/archivos/tipo/**",
+                        "/api/archivos/tamano",
+                        "/api/archivos/tamano/**",
+                        "/api/archivos/fechas",
+                        "/api/archivos/listarPorNombreAsc",
+                        "/api/archivos/listarPorNombreDesc");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.EnrutadorDataSource;
+import com.example.demo.dto.EstadisticaCache;
+import com.example.demo.dto.EstadoAdmision;
+import com.example.demo.dto.EstadoReplica;
+import com.example.demo.dto.InformeIntegridad;
+import com.example.demo.dto.ResultadoEliminacion;
+import com.example.demo.service.AdministracionService;
+import com.example.demo.service.EliminacionService;
+import com.example.demo.service.EstadisticasService;
+import com.example.demo.service.admision.ControlAdmision;
+import com.example.demo.service.integridad.VerificadorIntegridad;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "Administración", description = "Estado interno de la aplicación")
+public class AdminRestController {
+
+    private final AdministracionService administracionService;
+    private final EstadisticasService estadisticasService;
+    private final ControlAdmision controlAdmision;
+    private final EliminacionService eliminacionService;
+    private final VerificadorIntegridad verificadorIntegridad;
+    private final ObjectProvider<EnrutadorDataSource> enrutadorDataSource;
+
+    @Operation(summary = "Estadísticas de las cachés", description = "Entradas, aciertos, fallos y desalojos de cada caché")
+    @GetMapping("/caches")
+    public List<EstadisticaCache> estadisticasCache() {
+        return administracionService.estadisticasCache();
+    }
+
+    @Operation(summary = "Estado del control de admisión", description = "Subidas y bytes en curso y, desde el " +
+            "arranque, subidas admitidas, que tuvieron que esperar turno y rechazadas con 429")
+    @GetMapping("/admision")
+    public EstadoAdmision estadoAdmision() {
+        return controlAdmision.estado();
+    }
+
+    @Operation(summary = "Estado de las réplicas de lectura", description = "Si cada réplica está sirviendo lecturas " +
+            "y cuántas conexiones ha dado desde el arranque; vacío si no hay réplicas configuradas")
+    @GetMapping("/replicas")
+    public List<EstadoReplica> estadoReplicas() {
+        EnrutadorDataSource enrutador = enrutadorDataSource.getIfAvailable();
+        return enrutador != null ? enrutador.estado() : List.of();
+    }
+
+    @Operation(summary = "Eliminaciones masivas", description = "Avance de las eliminaciones por lotes en curso y " +
+            "resultado de las últimas: archivos eliminados y bytes liberados, tanto de la API como de la retención")
+    @GetMapping("/eliminaciones")
+    public List<ResultadoEliminacion> eliminaciones() {
+        return eliminacionService.estado();
+    }
+
+    @Operation(summary = "Aplicar la retención", description = "Ejecuta ahora las políticas de retención por tipo " +
+            "(archivos.eliminacion.retencion) en lugar de esperar a la pasada programada; vacío si no hay políticas " +
+            "o ya hay una pasada en curso")
+    @PostMapping("/retencion")
+    public List<ResultadoEliminacion> aplicarRetencion() {
+        return eliminacionService.aplicarRetencion();
+    }
+
+    @Operation(summary = "Integridad del almacén", description = "Avance de la verificación en segundo plano del " +
+            "tamaño y el SHA-256 de cada contenido, y problemas abiertos con los archivos afectados; con resueltos=true, " +
+            "también los ya resueltos (los 100 más recientes)")
+    @GetMapping("/integridad")
+    public InformeIntegridad integridad(@RequestParam(defaultValue = "false") boolean resueltos) {
+        return verificadorIntegridad.informe(resueltos);
+    }
+
+    @Operation(summary = "Reconstruir las estadísticas", description = "Recalcula desde cero los contadores por tipo y " +
+            "día a partir de los archivos guardados y devuelve cuántas combinaciones de tipo y día hay")
+    @PostMapping("/estadisticas/reconstruir")
+    public int reconstruirEstadisticas() {
+        return estadisticasService.reconstruir();
+    }
+}
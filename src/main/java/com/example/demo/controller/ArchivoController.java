@@ -1,15 +1,23 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.dto.OrdenArchivos;
+import com.example.demo.dto.PaginaArchivos;
 import com.example.demo.entidad.Archivo;
+import com.example.demo.exception.ArchivoNoValidoException;
 import com.example.demo.service.ArchivoService;
+import com.example.demo.service.DescargaService;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.Mensajes;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -21,6 +29,7 @@ import java.util.List;
 public class ArchivoController {
 
     private final ArchivoService archivoService;
+    private final DescargaService descargaService;
 
     @GetMapping("/")
     public String verPaginaPrincipal() {
@@ -29,9 +38,16 @@ public class ArchivoController {
 
 
     @GetMapping("/listado")
-    public String verListado(Model model) {
-        List<Archivo> archivos = archivoService.obtenerTodos();
-        model.addAttribute("archivos", archivos);
+    public String verListado(@RequestParam(defaultValue = "FECHA") OrdenArchivos orden,
+                             @RequestParam(defaultValue = "DESC") Sort.Direction direccion,
+                             @RequestParam(required = false) String cursor,
+                             Model model) {
+        PaginaArchivos pagina = archivoService.buscar(FiltroArchivos.vacio(), orden, direccion, cursor,
+                ArchivoConstants.LIMITE_PAGINA_DEFECTO);
+        model.addAttribute("archivos", pagina.elementos());
+        model.addAttribute("siguienteCursor", pagina.siguienteCursor());
+        model.addAttribute("orden", orden);
+        model.addAttribute("direccion", direccion);
         return "listado";
     }
 
@@ -59,12 +75,18 @@ public class ArchivoController {
     }
 
     @GetMapping("/descargar/{id}")
-    public ResponseEntity<ByteArrayResource> descargarArchivo(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> descargarArchivo(@PathVariable Long id, HttpServletRequest request) {
         Archivo archivo = archivoService.obtenerArchivo(id);
+        return descargaService.descargar(archivo, request);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo.getNombreArchivo() + "\"")
-                .header(HttpHeaders.CONTENT_TYPE, archivo.getTipoArchivo())
-                .body(new ByteArrayResource(archivo.getArchivo()));
+    @GetMapping("/descargar-zip")
+    public ResponseEntity<StreamingResponseBody> descargarZip(@RequestParam(required = false) List<Long> ids,
+                                                              HttpServletRequest request) {
+        // Sin casillas marcadas no se envía ids; el filtro vacío incluiría todos los archivos
+        if (ids == null || ids.isEmpty()) {
+            throw new ArchivoNoValidoException(Mensajes.ZIP_SIN_SELECCION);
+        }
+        return descargaService.descargarZip(archivoService.seleccionarArchivos(ids, FiltroArchivos.vacio()), request);
     }
 }
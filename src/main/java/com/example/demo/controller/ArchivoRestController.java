@@ -1,17 +1,33 @@
 package com.example.demo.controller;
 
 
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.dto.FormatoExportacion;
+import com.example.demo.dto.OrdenArchivos;
+import com.example.demo.dto.PaginaArchivos;
+import com.example.demo.dto.ResultadoEliminacion;
+import com.example.demo.dto.ResultadoPoda;
+import com.example.demo.dto.ResultadoSubida;
+import com.example.demo.dto.VersionResumen;
 import com.example.demo.entidad.Archivo;
 import com.example.demo.service.ArchivoService;
+import com.example.demo.service.DescargaService;
+import com.example.demo.service.EliminacionService;
+import com.example.demo.service.ExportacionService;
+import com.example.demo.service.miniatura.MiniaturaService;
+import com.example.demo.service.versiones.VersionService;
+import com.example.demo.utils.ArchivoConstants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -23,20 +39,50 @@ import java.util.List;
 public class ArchivoRestController {
 
     private final ArchivoService archivoService;
+    private final DescargaService descargaService;
+    private final MiniaturaService miniaturaService;
+    private final ExportacionService exportacionService;
+    private final EliminacionService eliminacionService;
+    private final VersionService versionService;
 
-    @Operation(summary = "Obtener todos los archivos", description = "Devuelve la lista completa de archivos")
+    @Operation(summary = "Obtener todos los archivos", description = "Devuelve la lista completa de archivos; " +
+            "para catálogos grandes usar /exportar", deprecated = true)
     @GetMapping
     public List<Archivo> obtenerTodos() {
         return archivoService.obtenerTodos();
     }
 
+    @Operation(summary = "Exportar el catálogo", description = "Envía por flujo los metadatos de todos los archivos " +
+            "en NDJSON (un objeto JSON por línea) o CSV, leyéndolos de la base de datos con un cursor")
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "NDJSON") FormatoExportacion formato) {
+        return exportacionService.exportar(formato);
+    }
+
+    @Operation(summary = "Buscar archivos", description = "Combina filtros por tipo, tamaño, fechas y prefijo del nombre, " +
+            "con orden estable y paginación por cursor")
+    @GetMapping("/buscar")
+    public PaginaArchivos buscar(@RequestParam(required = false) String tipo,
+                                 @RequestParam(required = false) Long tamanoMin,
+                                 @RequestParam(required = false) Long tamanoMax,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                 @RequestParam(required = false) String nombre,
+                                 @RequestParam(defaultValue = "FECHA") OrdenArchivos orden,
+                                 @RequestParam(defaultValue = "DESC") Sort.Direction direccion,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = "" + ArchivoConstants.LIMITE_PAGINA_DEFECTO) int limite) {
+        FiltroArchivos filtro = new FiltroArchivos(tipo, tamanoMin, tamanoMax, desde, hasta, nombre);
+        return archivoService.buscar(filtro, orden, direccion, cursor, limite);
+    }
+
     @Operation(summary = "Obtener un archivo por ID", description = "Devuelve un archivo según su ID")
     @GetMapping("/{id}")
     public Archivo obtenerPorId(@PathVariable Long id) {
         return archivoService.obtenerArchivo(id);
     }
 
-    @Operation(summary = "Listar archivos por tipo", description = "Filtra archivos por tipo (opcional)")
+    @Operation(summary = "Listar archivos por tipo", description = "Filtra archivos por tipo (opcional)", deprecated = true)
     @GetMapping("/tipo")
     public ResponseEntity<List<Archivo>> listarPorTipo(@RequestParam(required = false) String tipo) {
         List<Archivo> archivos = archivoService.listarPorTipo(tipo);
@@ -50,14 +96,47 @@ public class ArchivoRestController {
         return archivoService.guardarArchivo(archivo, descripcion);
     }
 
+    @Operation(summary = "Subir varios archivos", description = "Guarda un lote de archivos en una sola transacción y " +
+            "devuelve el resultado de cada uno en el mismo orden. Cada archivo toma la descripción de su posición, " +
+            "o la única enviada si solo hay una")
+    @PostMapping(value = "/lote", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<ResultadoSubida> subirLote(@RequestParam(value = "archivos", required = false) List<MultipartFile> archivos,
+                                           HttpServletRequest request) throws IOException {
+        // Se leen tal cual: con @RequestParam un único valor con comas se partiría en varios
+        String[] descripciones = request.getParameterValues("descripciones");
+        return archivoService.guardarLote(archivos, descripciones != null ? List.of(descripciones) : List.of());
+    }
+
     @Operation(summary = "Descargar un archivo por ID", description = "Devuelve el archivo para descargarlo")
     @GetMapping("/descargar/{id}")
-    public ResponseEntity<ByteArrayResource> descargarArchivo(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> descargarArchivo(@PathVariable Long id, HttpServletRequest request) {
         Archivo archivo = archivoService.obtenerArchivo(id);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo.getNombreArchivo() + "\"")
-                .contentType(MediaType.parseMediaType(archivo.getTipoArchivo()))
-                .body(new ByteArrayResource(archivo.getArchivo()));
+        return descargaService.descargar(archivo, request);
+    }
+
+    @Operation(summary = "Obtener la miniatura de un archivo", description = "Devuelve una miniatura JPEG de las " +
+            "imágenes y de la primera página de los PDF. Se genera en segundo plano tras la subida, así que puede " +
+            "responder 404 hasta que esté lista. Con v igual al hash del contenido la respuesta se cachea sin revalidar")
+    @GetMapping("/{id}/miniatura")
+    public ResponseEntity<byte[]> obtenerMiniatura(@PathVariable Long id,
+                                                   @RequestParam(required = false) String v,
+                                                   HttpServletRequest request) {
+        return miniaturaService.obtener(archivoService.obtenerArchivo(id), v, request);
+    }
+
+    @Operation(summary = "Descargar varios archivos en un ZIP", description = "Incluye los ids indicados o, si no se " +
+            "indican, los archivos que cumplen el filtro. El ZIP se genera y envía por flujo")
+    @GetMapping("/zip")
+    public ResponseEntity<StreamingResponseBody> descargarZip(@RequestParam(required = false) List<Long> ids,
+                                                              @RequestParam(required = false) String tipo,
+                                                              @RequestParam(required = false) Long tamanoMin,
+                                                              @RequestParam(required = false) Long tamanoMax,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                                              @RequestParam(required = false) String nombre,
+                                                              HttpServletRequest request) {
+        FiltroArchivos filtro = new FiltroArchivos(tipo, tamanoMin, tamanoMax, desde, hasta, nombre);
+        return descargaService.descargarZip(archivoService.seleccionarArchivos(ids, filtro), request);
     }
 
     @Operation(summary = "Actualizar un archivo existente", description = "Permite actualizar un archivo y su descripción")
@@ -75,14 +154,62 @@ public class ArchivoRestController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Listar las versiones de un archivo", description = "La versión actual primero y después " +
+            "las anteriores, de la más reciente a la más antigua. Cada actualización del contenido guarda la anterior")
+    @GetMapping("/{id}/versiones")
+    public List<VersionResumen> listarVersiones(@PathVariable Long id) {
+        return versionService.listar(id);
+    }
+
+    @Operation(summary = "Descargar una versión de un archivo", description = "Con el número de la versión actual " +
+            "equivale a la descarga normal; las anteriores se envían por flujo uniendo sus fragmentos")
+    @GetMapping("/{id}/versiones/{numero}/descargar")
+    public ResponseEntity<StreamingResponseBody> descargarVersion(@PathVariable Long id, @PathVariable int numero,
+                                                                  HttpServletRequest request) {
+        Archivo archivo = archivoService.obtenerArchivo(id);
+        if (numero == archivo.getNumeroVersion()) {
+            return descargaService.descargar(archivo, request);
+        }
+        return descargaService.descargarVersion(versionService.obtenerVersion(id, numero), request);
+    }
+
+    @Operation(summary = "Eliminar una versión anterior", description = "La versión actual no se puede eliminar. " +
+            "Devuelve los bytes liberados: solo los fragmentos que no comparte con otras versiones")
+    @DeleteMapping("/{id}/versiones/{numero}")
+    public ResultadoPoda eliminarVersion(@PathVariable Long id, @PathVariable int numero) {
+        return versionService.eliminarVersion(id, numero);
+    }
+
+    @Operation(summary = "Podar las versiones anteriores", description = "Conserva las N versiones anteriores más " +
+            "recientes y elimina el resto; con conservar=0 queda solo la actual")
+    @DeleteMapping("/{id}/versiones")
+    public ResultadoPoda podarVersiones(@PathVariable Long id, @RequestParam(defaultValue = "0") int conservar) {
+        return versionService.podar(id, conservar);
+    }
+
+    @Operation(summary = "Eliminar varios archivos", description = "Elimina por lotes los archivos con los ids indicados " +
+            "y/o los que cumplan los filtros (por ejemplo tipo y hasta, para los de un tipo anteriores a una fecha). " +
+            "Hace falta al menos uno de los dos. Devuelve cuántos archivos se eliminaron y los bytes liberados del almacén")
+    @DeleteMapping
+    public ResultadoEliminacion eliminarVarios(@RequestParam(required = false) List<Long> ids,
+                                               @RequestParam(required = false) String tipo,
+                                               @RequestParam(required = false) Long tamanoMin,
+                                               @RequestParam(required = false) Long tamanoMax,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                               @RequestParam(required = false) String nombre) {
+        FiltroArchivos filtro = new FiltroArchivos(tipo, tamanoMin, tamanoMax, desde, hasta, nombre);
+        return eliminacionService.eliminarVarios(ids, filtro);
+    }
+
     // --- Filtrado por tipo y fecha ---
-    @Operation(summary = "Listar archivos por tipo (ascendente)", description = "Archivos filtrados por tipo y ordenados por fecha ascendente")
+    @Operation(summary = "Listar archivos por tipo (ascendente)", description = "Archivos filtrados por tipo y ordenados por fecha ascendente", deprecated = true)
     @GetMapping("/tipo/{tipo}/asc")
     public ResponseEntity<List<Archivo>> listarPorTipoAsc(@PathVariable String tipo) {
         return ResponseEntity.ok(archivoService.listarPorTipoFechaAsc(tipo));
     }
 
-    @Operation(summary = "Listar archivos por tipo (descendente)", description = "Archivos filtrados por tipo y ordenados por fecha descendente")
+    @Operation(summary = "Listar archivos por tipo (descendente)", description = "Archivos filtrados por tipo y ordenados por fecha descendente", deprecated = true)
     @GetMapping("/tipo/{tipo}/desc")
     public ResponseEntity<List<Archivo>> listarPorTipoDesc(@PathVariable String tipo) {
         return ResponseEntity.ok(archivoService.listarPorTipoFechaDesc(tipo));
@@ -96,26 +223,26 @@ public class ArchivoRestController {
     }
 
     // --- Filtrado por tamaño ---
-    @Operation(summary = "Listar archivos con tamaño mayor al indicado")
+    @Operation(summary = "Listar archivos con tamaño mayor al indicado", deprecated = true)
     @GetMapping("/tamano")
     public List<Archivo> archivosPorTamano(@RequestParam("min") long tamanoMinimo) {
         return archivoService.archivosPorTamano(tamanoMinimo);
     }
 
-    @Operation(summary = "Listar archivos por tamaño ascendente")
+    @Operation(summary = "Listar archivos por tamaño ascendente", deprecated = true)
     @GetMapping("/tamano/asc")
     public ResponseEntity<List<Archivo>> listarPorTamanoAsc() {
         return ResponseEntity.ok(archivoService.listarPorTamanoAsc());
     }
 
-    @Operation(summary = "Listar archivos por tamaño descendente")
+    @Operation(summary = "Listar archivos por tamaño descendente", deprecated = true)
     @GetMapping("/tamano/desc")
     public ResponseEntity<List<Archivo>> listarPorTamanoDesc() {
         return ResponseEntity.ok(archivoService.listarPorTamanoDesc());
     }
 
     // --- Filtrado por fechas ---
-    @Operation(summary = "Listar archivos subidos entre fechas")
+    @Operation(summary = "Listar archivos subidos entre fechas", deprecated = true)
     @GetMapping("/fechas")
     public List<Archivo> archivosEntreFechas(@RequestParam("inicio") String inicioStr,
                                              @RequestParam("fin") String finStr) {
@@ -125,21 +252,25 @@ public class ArchivoRestController {
     }
 
     // --- Ordenar y buscar por nombre ---
-    @Operation(summary = "Listar archivos por nombre ascendente")
+    @Operation(summary = "Listar archivos por nombre ascendente", deprecated = true)
     @GetMapping("/listarPorNombreAsc")
     public ResponseEntity<List<Archivo>> listarPorNombreAsc() {
         return ResponseEntity.ok(archivoService.listarPorNombreAsc());
     }
 
-    @Operation(summary = "Listar archivos por nombre descendente")
+    @Operation(summary = "Listar archivos por nombre descendente", deprecated = true)
     @GetMapping("/listarPorNombreDesc")
     public ResponseEntity<List<Archivo>> listarPorNombreDesc() {
         return ResponseEntity.ok(archivoService.listarPorNombreDesc());
     }
 
-    @Operation(summary = "Buscar archivos por nombre (contiene)")
+    @Operation(summary = "Buscar archivos por nombre (contiene)", description = "Busca el texto en el nombre y la descripción; " +
+            "los resultados se ordenan por relevancia y se paginan")
     @GetMapping("/buscarPorNombre")
-    public ResponseEntity<List<Archivo>> buscarPorNombre(@RequestParam String nombre) {
-        return ResponseEntity.ok(archivoService.buscarPorNombre(nombre));
+    public ResponseEntity<List<Archivo>> buscarPorNombre(@RequestParam String nombre,
+                                                         @RequestParam(defaultValue = "false") boolean soloPrefijo,
+                                                         @RequestParam(defaultValue = "0") int pagina,
+                                                         @RequestParam(defaultValue = "" + ArchivoConstants.LIMITE_PAGINA_DEFECTO) int limite) {
+        return ResponseEntity.ok(archivoService.buscarPorNombre(nombre, soloPrefijo, pagina, limite));
     }
 }
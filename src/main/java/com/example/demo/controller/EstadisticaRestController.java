@@ -0,0 +1,44 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.TotalTipo;
+import com.example.demo.entidad.EstadisticaDiaria;
+import com.example.demo.service.EstadisticasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/estadisticas")
+@RequiredArgsConstructor
+@Tag(name = "Estadísticas", description = "Archivos y bytes almacenados por tipo y por día")
+public class EstadisticaRestController {
+
+    private static final int DIAS_POR_DEFECTO = 30;
+
+    private final EstadisticasService estadisticasService;
+
+    @Operation(summary = "Estadísticas por día", description = "Archivos y bytes subidos cada día y de cada tipo " +
+            "entre dos fechas (por defecto, los últimos 30 días), opcionalmente de un solo tipo")
+    @GetMapping("/diarias")
+    public List<EstadisticaDiaria> porDia(@RequestParam(required = false) String tipo,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        return estadisticasService.porDia(tipo, inicio, fin);
+    }
+
+    @Operation(summary = "Totales por tipo", description = "Archivos y bytes almacenados de cada tipo MIME")
+    @GetMapping("/tipos")
+    public List<TotalTipo> porTipo() {
+        return estadisticasService.porTipo();
+    }
+}
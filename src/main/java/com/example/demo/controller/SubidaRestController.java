@@ -0,0 +1,63 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.EstadoSesionSubida;
+import com.example.demo.dto.SolicitudSesionSubida;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.service.SubidaFragmentadaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/subidas")
+@RequiredArgsConstructor
+@Tag(name = "Subidas fragmentadas", description = "Subida reanudable de archivos grandes por fragmentos")
+public class SubidaRestController {
+
+    public static final String CABECERA_CHECKSUM = "X-Checksum-Sha256";
+
+    private final SubidaFragmentadaService subidaFragmentadaService;
+
+    @Operation(summary = "Crear una sesión de subida", description = "Reserva una sesión para recibir el archivo por fragmentos")
+    @PostMapping
+    public ResponseEntity<EstadoSesionSubida> crearSesion(@Valid @RequestBody SolicitudSesionSubida solicitud) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(subidaFragmentadaService.crearSesion(solicitud));
+    }
+
+    @Operation(summary = "Consultar una sesión de subida", description = "Devuelve los rangos de bytes ya recibidos")
+    @GetMapping("/{id}")
+    public EstadoSesionSubida obtenerEstado(@PathVariable String id) {
+        return subidaFragmentadaService.obtenerEstado(id);
+    }
+
+    @Operation(summary = "Enviar un fragmento", description = "Escribe el cuerpo de la petición a partir de la posición indicada. " +
+            "Reenviar un fragmento ya recibido con el mismo contenido se acepta; con otro contenido responde 409")
+    @PutMapping("/{id}/fragmentos")
+    public EstadoSesionSubida recibirFragmento(@PathVariable String id,
+                                               @RequestParam("desde") long desde,
+                                               @RequestHeader(value = CABECERA_CHECKSUM, required = false) String checksum,
+                                               InputStream datos) throws IOException {
+        return subidaFragmentadaService.recibirFragmento(id, desde, datos, checksum);
+    }
+
+    @Operation(summary = "Finalizar una sesión de subida", description = "Ensambla los fragmentos y registra el archivo")
+    @PostMapping("/{id}/finalizar")
+    public Archivo finalizar(@PathVariable String id,
+                             @RequestParam(value = "sha256", required = false) String sha256) throws IOException {
+        return subidaFragmentadaService.finalizar(id, sha256);
+    }
+
+    @Operation(summary = "Cancelar una sesión de subida")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelar(@PathVariable String id) {
+        subidaFragmentadaService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
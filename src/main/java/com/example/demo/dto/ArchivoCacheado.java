@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Codec;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lo que se guarda en las cachés de metadatos: una copia inmutable de la fila. Quien lee de la
+ * caché recibe un {@link Archivo} nuevo, así que modificarlo no cambia lo cacheado.
+ */
+public record ArchivoCacheado(Long id, String nombreArchivo, String tipoArchivo, String hashContenido, long tamano,
+                              Codec codec, Long tamanoAlmacenado, String descripcion, LocalDateTime fechaSubida,
+                              Integer numeroVersion) {
+
+    public static ArchivoCacheado de(Archivo archivo) {
+        return new ArchivoCacheado(archivo.getId(), archivo.getNombreArchivo(), archivo.getTipoArchivo(),
+                archivo.getHashContenido(), archivo.getTamano(), archivo.getCodec(), archivo.getTamanoAlmacenado(),
+                archivo.getDescripcion(), archivo.getFechaSubida(), archivo.getNumeroVersion());
+    }
+
+    public Archivo aArchivo() {
+        return Archivo.builder()
+                .id(id)
+                .nombreArchivo(nombreArchivo)
+                .tipoArchivo(tipoArchivo)
+                .hashContenido(hashContenido)
+                .tamano(tamano)
+                .codec(codec)
+                .tamanoAlmacenado(tamanoAlmacenado)
+                .descripcion(descripcion)
+                .fechaSubida(fechaSubida)
+                .numeroVersion(numeroVersion)
+                .build();
+    }
+}
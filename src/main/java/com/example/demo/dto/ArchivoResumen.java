@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadatos de un archivo tal como se exportan.
+ */
+public record ArchivoResumen(Long id, String nombreArchivo, String tipoArchivo, long tamano, String hashContenido,
+                             String descripcion, LocalDateTime fechaSubida) {
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record EstadisticaCache(
+        String nombre,
+        long entradas,
+        long aciertos,
+        long fallos,
+        double tasaAciertos,
+        long desalojos) {
+
+    public static EstadisticaCache de(String nombre, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new EstadisticaCache(nombre, cache.estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+/**
+ * Estado del control de admisión de subidas: lo que se está procesando ahora y los contadores
+ * desde el arranque.
+ */
+public record EstadoAdmision(int subidasEnCurso, long bytesEnCurso, long admitidas, long encoladas,
+                             long rechazadas, long descargaPorCliente) {
+}
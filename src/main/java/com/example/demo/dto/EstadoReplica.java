@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+public record EstadoReplica(
+        String nombre,
+        String url,
+        boolean sana,
+        long lecturas) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record EstadoSesionSubida(
+        String id,
+        String nombreArchivo,
+        long tamanoTotal,
+        long bytesRecibidos,
+        List<RangoRecibido> recibidos,
+        LocalDateTime fechaExpiracion) {
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import com.example.demo.utils.TipoMime;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros combinables de la búsqueda de archivos; los valores nulos no filtran.
+ */
+public record FiltroArchivos(
+        String tipo,
+        Long tamanoMin,
+        Long tamanoMax,
+        LocalDateTime desde,
+        LocalDateTime hasta,
+        String nombre) {
+
+    public FiltroArchivos {
+        tipo = TipoMime.normalizar(tipo);
+        nombre = nombre == null || nombre.isBlank() ? null : nombre.trim();
+    }
+
+    public static FiltroArchivos vacio() {
+        return new FiltroArchivos(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Avance de la verificación de integridad y problemas encontrados. {@code verificados} y
+ * {@code bytesVerificados} son de la pasada en curso, o de la última si no hay ninguna en curso.
+ */
+public record InformeIntegridad(boolean habilitada, long pasada, boolean enCurso, LocalDateTime inicioPasada,
+                                LocalDateTime finUltimaPasada, long verificados, long bytesVerificados,
+                                long contenidos, List<ProblemaDetectado> problemas) {
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+public enum OrdenArchivos {
+
+    FECHA("fechaSubida"),
+    TAMANO("tamano"),
+    NOMBRE("nombreArchivo");
+
+    private final String campo;
+
+    OrdenArchivos(String campo) {
+        this.campo = campo;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import com.example.demo.entidad.Archivo;
+
+import java.util.List;
+
+/**
+ * Página de resultados; {@code siguienteCursor} es nulo en la última página.
+ */
+public record PaginaArchivos(List<Archivo> elementos, String siguienteCursor) {
+}
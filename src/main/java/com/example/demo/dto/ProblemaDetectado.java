@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import com.example.demo.entidad.TipoProblemaIntegridad;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Un problema de integridad con los archivos cuyo contenido afecta.
+ */
+public record ProblemaDetectado(Long id, String hash, TipoProblemaIntegridad tipo, String detalle,
+                                LocalDateTime fechaDeteccion, LocalDateTime fechaComprobacion,
+                                LocalDateTime fechaResolucion, List<Long> archivos) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * Tramo de bytes recibido, con {@code hasta} excluido.
+ */
+public record RangoRecibido(long desde, long hasta) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avance de una eliminación masiva o de una pasada de retención; {@code fin} es nulo mientras
+ * sigue en curso. {@code bytesLiberados} es lo que ocupaban en el almacén los contenidos que se
+ * quedaron sin archivos; el contenido compartido con archivos que siguen no se libera.
+ */
+public record ResultadoEliminacion(String origen, LocalDateTime inicio, LocalDateTime fin, int lotes,
+                                   long archivos, long bytesArchivos, long contenidosLiberados,
+                                   long bytesLiberados) {
+}
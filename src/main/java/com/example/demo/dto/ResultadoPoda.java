@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * Versiones eliminadas y lo que se liberó del almacén: solo los fragmentos que ya no usaba
+ * ninguna otra versión ni archivo.
+ */
+public record ResultadoPoda(int versiones, int contenidosLiberados, long bytesLiberados) {
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import com.example.demo.entidad.Archivo;
+
+/**
+ * Resultado de cada archivo de un lote: {@code id} es nulo si el archivo fue rechazado.
+ */
+public record ResultadoSubida(
+        String nombreArchivo,
+        Long id,
+        boolean duplicado,
+        String error) {
+
+    public static ResultadoSubida guardado(Archivo archivo, boolean duplicado) {
+        return new ResultadoSubida(archivo.getNombreArchivo(), archivo.getId(), duplicado, null);
+    }
+
+    public static ResultadoSubida rechazado(String nombreArchivo, String error) {
+        return new ResultadoSubida(nombreArchivo, null, false, error);
+    }
+}
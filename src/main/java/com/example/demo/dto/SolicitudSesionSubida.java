@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record SolicitudSesionSubida(
+        @NotBlank(message = "El nombre del archivo es obligatorio") String nombreArchivo,
+        @NotBlank(message = "El tipo de archivo es obligatorio") String tipoArchivo,
+        @Min(value = 1, message = "El tamaño del archivo debe ser mayor a 0") long tamano,
+        @Size(max = 500, message = "La descripción no puede superar los 500 caracteres") String descripcion) {
+}
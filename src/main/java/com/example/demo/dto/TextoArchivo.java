@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * Campos de texto de un archivo, sin el resto de la fila.
+ */
+public record TextoArchivo(Long id, String nombreArchivo, String descripcion) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * Archivos y bytes acumulados de un tipo MIME.
+ */
+public record TotalTipo(String tipoArchivo, long archivos, long bytes) {
+}
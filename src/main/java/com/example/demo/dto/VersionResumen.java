@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una versión de un archivo. La actual es la que se descarga normalmente y no tiene
+ * {@code fechaArchivado}; en las anteriores, {@code bytesNuevos} es lo que ocupó guardarla
+ * además de lo que ya compartía con otras versiones.
+ */
+public record VersionResumen(int numero, boolean actual, String nombreArchivo, String tipoArchivo, long tamano,
+                             String hashContenido, LocalDateTime fechaSubida, LocalDateTime fechaArchivado,
+                             int fragmentos, long bytesNuevos) {
+}
@@ -1,25 +1,37 @@
 package com.example.demo.entidad;
 
 import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.TipoMime;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import java.time.LocalDateTime;
-import java.util.Map;
 
+// Índices de los filtros y órdenes de los listados; el id cierra cada uno para que el orden
+// sea total y la paginación por keyset recorra el índice sin ordenar aparte
 @Entity
-@Table(name = "archivos")
+@Table(name = "archivos", indexes = {
+        @Index(name = "idx_archivos_tipo_fecha", columnList = "tipo_archivo, fecha_subida, codigo"),
+        @Index(name = "idx_archivos_fecha", columnList = "fecha_subida, codigo"),
+        @Index(name = "idx_archivos_tamano", columnList = "tamano, codigo"),
+        @Index(name = "idx_archivos_nombre", columnList = "nombre_archivo, codigo")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Archivo {
 
+    public static final String SECUENCIA = "archivos_seq";
+    public static final int ASIGNACION_IDS = 50;
+
+    // Con IDENTITY Hibernate tiene que insertar fila a fila para conocer el id; con una
+    // secuencia reservada de 50 en 50 los inserts pueden ir en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SECUENCIA)
+    @SequenceGenerator(name = SECUENCIA, sequenceName = SECUENCIA, allocationSize = ASIGNACION_IDS)
     @Column(name = "codigo", nullable = false)
     private Long id;
 
@@ -31,15 +43,20 @@ public class Archivo {
     @Column(name = "tipo_archivo", nullable = false)
     private String tipoArchivo;
 
-    @NotNull(message = "El archivo no puede estar vacío")
-    @Lob
-    @Column(name = "archivo", columnDefinition = "LONGBLOB", nullable = false)
-    private byte[] archivo;
+    @Column(name = "hash_contenido", length = 64)
+    private String hashContenido;
 
     @Min(value = 1, message = "El tamaño del archivo debe ser mayor a 0")
     @Column(nullable = false)
     private long tamano;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Codec codec;
+
+    @Column(name = "tamano_almacenado")
+    private Long tamanoAlmacenado;
+
     @NotBlank(message = "La descripción es obligatoria")
     @Size(max = 500, message = "La descripción no puede superar los 500 caracteres")
     @Column(length = 500, nullable = false)
@@ -48,26 +65,29 @@ public class Archivo {
     @Column(name = "fecha_subida", nullable = false)
     private LocalDateTime fechaSubida;
 
+    // Las versiones anteriores están en versiones_archivo; nulo mientras no se ha actualizado
+    @Column(name = "numero_version")
+    private Integer numeroVersion;
+
+    public int getNumeroVersion() {
+        return numeroVersion != null ? numeroVersion : 1;
+    }
+
 
     @Transient
     public String getTipoAmigable() {
         if (tipoArchivo == null || tipoArchivo.isBlank()) return ArchivoConstants.TIPO_DESCONOCIDO;
-
-        String tipo = tipoArchivo.toLowerCase();
-
-        if (tipo.contains("pdf")) return ArchivoConstants.TIPO_PDF;
-        if (tipo.contains("png")) return ArchivoConstants.TIPO_IMAGEN_PNG;
-        if (tipo.contains("jpeg") || tipo.contains("jpg")) return ArchivoConstants.TIPO_IMAGEN_JPEG;
-        if (tipo.contains("word")) return ArchivoConstants.TIPO_WORD;
-        if (tipo.contains("excel")) return ArchivoConstants.TIPO_EXCEL;
-        if (tipo.contains("powerpoint")) return ArchivoConstants.TIPO_POWERPOINT;
-
-        return tipoArchivo;
+        return TipoMime.desde(tipoArchivo).map(TipoMime::getNombre).orElse(tipoArchivo);
     }
 
     @Transient
     public String getColorTipo() {
-        return ArchivoConstants.TIPO_COLOR_MAP.getOrDefault(tipoArchivo, ArchivoConstants.COLOR_DEFAULT);
+        return TipoMime.desde(tipoArchivo).map(TipoMime::getColor).orElse(ArchivoConstants.COLOR_DEFAULT);
+    }
+
+    @Transient
+    public boolean isConMiniatura() {
+        return TipoMime.desde(tipoArchivo).map(TipoMime::isConMiniatura).orElse(false);
     }
 
     @Transient
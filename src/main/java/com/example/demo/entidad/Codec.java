@@ -0,0 +1,21 @@
+package com.example.demo.entidad;
+
+/**
+ * Codificación con la que se guarda un contenido en el almacén. DEFLATE es el formato zlib,
+ * el mismo que HTTP llama {@code deflate}, así que puede enviarse tal cual.
+ */
+public enum Codec {
+
+    NINGUNO(null),
+    DEFLATE("deflate");
+
+    private final String contentEncoding;
+
+    Codec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "contenidos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Contenido {
+
+    @Id
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    @Column(nullable = false)
+    private long tamano;
+
+    @Column(nullable = false)
+    private long referencias;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Codec codec;
+
+    @Column(name = "tamano_almacenado")
+    private Long tamanoAlmacenado;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
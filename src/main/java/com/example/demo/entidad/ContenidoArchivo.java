@@ -0,0 +1,23 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "archivos_contenido")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContenidoArchivo {
+
+    @Id
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    @ToString.Exclude
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "datos", columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] datos;
+}
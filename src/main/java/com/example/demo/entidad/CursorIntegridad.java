@@ -0,0 +1,43 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Por dónde va la verificación de integridad, para seguir tras un reinicio. Una sola fila: la
+ * pasada recorre {@code contenidos} en orden de hash y {@code ultimoHash} es el último verificado.
+ */
+@Entity
+@Table(name = "integridad_cursor")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorIntegridad {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "ultimo_hash", length = 64)
+    private String ultimoHash;
+
+    @Column(nullable = false)
+    private long pasada;
+
+    @Column(name = "inicio_pasada")
+    private LocalDateTime inicioPasada;
+
+    @Column(name = "fin_ultima_pasada")
+    private LocalDateTime finUltimaPasada;
+
+    // De la pasada en curso
+    @Column(nullable = false)
+    private long verificados;
+
+    @Column(name = "bytes_verificados", nullable = false)
+    private long bytesVerificados;
+}
@@ -0,0 +1,43 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Número de archivos y bytes subidos de un tipo en un día. Se mantiene al guardar, actualizar
+ * y eliminar archivos, así que las estadísticas no recorren {@code archivos}.
+ */
+@Entity
+@Table(name = "estadisticas_diarias")
+@IdClass(EstadisticaDiaria.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EstadisticaDiaria {
+
+    @Id
+    @Column(name = "tipo_archivo", nullable = false)
+    private String tipoArchivo;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private long archivos;
+
+    @Column(nullable = false)
+    private long bytes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private String tipoArchivo;
+        private LocalDate fecha;
+    }
+}
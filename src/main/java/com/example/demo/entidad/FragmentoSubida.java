@@ -0,0 +1,30 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "fragmentos_subida",
+        uniqueConstraints = @UniqueConstraint(name = "uk_fragmentos_subida_sesion_desde", columnNames = {"sesion_id", "desde"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FragmentoSubida {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sesion_id", length = 36, nullable = false)
+    private String sesionId;
+
+    @Column(nullable = false)
+    private long desde;
+
+    @Column(nullable = false)
+    private long longitud;
+
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+}
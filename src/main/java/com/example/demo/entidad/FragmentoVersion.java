@@ -0,0 +1,43 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Fragmento {@code posicion} de una versión. El fragmento es un contenido más (tabla
+ * {@code contenidos}): se guarda una vez aunque lo compartan varias versiones o archivos y
+ * cada fila de esta tabla le suma una referencia.
+ */
+@Entity
+@Table(name = "fragmentos_version")
+@IdClass(FragmentoVersion.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FragmentoVersion {
+
+    @Id
+    @Column(name = "version_id", nullable = false)
+    private Long versionId;
+
+    @Id
+    @Column(nullable = false)
+    private int posicion;
+
+    @Column(name = "hash_fragmento", length = 64, nullable = false)
+    private String hashFragmento;
+
+    @Column(nullable = false)
+    private int tamano;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long versionId;
+        private int posicion;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "miniaturas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Miniatura {
+
+    // Como el contenido, la miniatura se guarda una vez por hash y la comparten los duplicados
+    @Id
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    @Column(nullable = false)
+    private int ancho;
+
+    @Column(nullable = false)
+    private int alto;
+
+    @ToString.Exclude
+    @Lob
+    @Column(name = "datos", columnDefinition = "MEDIUMBLOB", nullable = false)
+    private byte[] datos;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,46 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Problema detectado en un contenido. Sigue abierto ({@code fechaResolucion} nula) mientras
+ * las verificaciones lo vuelven a encontrar; se cierra cuando el contenido vuelve a estar
+ * bien o deja de existir.
+ */
+@Entity
+@Table(name = "problemas_integridad", indexes = {
+        @Index(name = "idx_problemas_integridad_hash", columnList = "hash, fecha_resolucion"),
+        @Index(name = "idx_problemas_integridad_fecha", columnList = "fecha_deteccion")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProblemaIntegridad {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String hash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private TipoProblemaIntegridad tipo;
+
+    @Column(length = 500)
+    private String detalle;
+
+    @Column(name = "fecha_deteccion", nullable = false)
+    private LocalDateTime fechaDeteccion;
+
+    @Column(name = "fecha_comprobacion", nullable = false)
+    private LocalDateTime fechaComprobacion;
+
+    @Column(name = "fecha_resolucion")
+    private LocalDateTime fechaResolucion;
+}
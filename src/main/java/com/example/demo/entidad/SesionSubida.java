@@ -0,0 +1,37 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "sesiones_subida", indexes = @Index(name = "idx_sesiones_subida_expiracion", columnList = "fecha_expiracion"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SesionSubida {
+
+    @Id
+    @Column(length = 36, nullable = false)
+    private String id;
+
+    @Column(name = "nombre_archivo", nullable = false)
+    private String nombreArchivo;
+
+    @Column(name = "tipo_archivo", nullable = false)
+    private String tipoArchivo;
+
+    @Column(length = 500)
+    private String descripcion;
+
+    @Column(name = "tamano_total", nullable = false)
+    private long tamanoTotal;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.entidad;
+
+/**
+ * Lo que encontró la verificación de integridad al releer un contenido del almacén.
+ */
+public enum TipoProblemaIntegridad {
+
+    // No está en el almacén aunque sigue registrado en contenidos
+    FALTANTE,
+    // Ocupa en el almacén o descomprimido otra cantidad de bytes que la registrada: truncado
+    TAMANO,
+    // Los bytes no corresponden al SHA-256 con el que se guardó
+    CHECKSUM,
+    // Los datos comprimidos no se pueden descomprimir, o no se pueden leer tras varios intentos
+    ILEGIBLE
+}
@@ -0,0 +1,59 @@
+package com.example.demo.entidad;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión anterior de un archivo, sustituida al actualizarlo. Su contenido no se guarda entero
+ * sino como la secuencia de fragmentos de {@link FragmentoVersion}.
+ */
+@Entity
+@Table(name = "versiones_archivo", uniqueConstraints = @UniqueConstraint(
+        name = "uk_versiones_archivo_numero", columnNames = {"codigo_archivo", "numero"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VersionArchivo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "codigo_archivo", nullable = false)
+    private Long archivoId;
+
+    @Column(nullable = false)
+    private int numero;
+
+    @Column(name = "nombre_archivo", nullable = false)
+    private String nombreArchivo;
+
+    @Column(name = "tipo_archivo", nullable = false)
+    private String tipoArchivo;
+
+    @Column(length = 500)
+    private String descripcion;
+
+    @Column(nullable = false)
+    private long tamano;
+
+    // SHA-256 de la versión completa, para el ETag y para comprobarla al descargarla
+    @Column(name = "hash_contenido", length = 64, nullable = false)
+    private String hashContenido;
+
+    @Column(nullable = false)
+    private int fragmentos;
+
+    // Lo que hubo que escribir en el almacén: los fragmentos que no estaban ya guardados
+    @Column(name = "bytes_nuevos", nullable = false)
+    private long bytesNuevos;
+
+    @Column(name = "fecha_subida", nullable = false)
+    private LocalDateTime fechaSubida;
+
+    @Column(name = "fecha_archivado", nullable = false)
+    private LocalDateTime fechaArchivado;
+}
@@ -0,0 +1,9 @@
+package com.example.demo.evento;
+
+import com.example.demo.entidad.Archivo;
+
+/**
+ * Se publica al eliminar un archivo.
+ */
+public record ArchivoEliminadoEvent(Archivo archivo) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.evento;
+
+import com.example.demo.entidad.Archivo;
+
+/**
+ * Se publica al crear o actualizar un archivo.
+ */
+public record ArchivoGuardadoEvent(Archivo archivo) {
+}
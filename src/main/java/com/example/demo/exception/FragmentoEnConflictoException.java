@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class FragmentoEnConflictoException extends RuntimeException {
+    public FragmentoEnConflictoException(String mensaje) {
+        super(mensaje);
+    }
+}
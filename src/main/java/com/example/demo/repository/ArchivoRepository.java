@@ -1,35 +1,89 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ArchivoResumen;
+import com.example.demo.dto.TextoArchivo;
 import com.example.demo.entidad.Archivo;
+import com.example.demo.utils.ArchivoConstants;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ArchivoRepository extends JpaRepository<Archivo, Long> {
+public interface ArchivoRepository extends JpaRepository<Archivo, Long>, JpaSpecificationExecutor<Archivo> {
 
 
-    List<Archivo> findByTipoArchivoIgnoreCase(String tipo);
+    // El tipo se guarda normalizado (TipoMime), así que se compara tal cual: sin lower() sobre
+    // la columna, la consulta es un rango de idx_archivos_tipo_fecha
+    List<Archivo> findByTipoArchivo(String tipo);
 
-    List<Archivo> findByTipoArchivoIgnoreCaseOrderByFechaSubidaAsc(String tipo);
+    List<Archivo> findByTipoArchivoOrderByFechaSubidaAscIdAsc(String tipo);
 
-    List<Archivo> findByTipoArchivoIgnoreCaseOrderByFechaSubidaDesc(String tipo);
+    List<Archivo> findByTipoArchivoOrderByFechaSubidaDescIdDesc(String tipo);
 
-    List<Archivo> findTop10ByOrderByFechaSubidaDesc();
+    List<Archivo> findTop10ByOrderByFechaSubidaDescIdDesc();
 
     List<Archivo> findByTamanoGreaterThan(long tamano);
 
     List<Archivo> findByFechaSubidaBetween(LocalDateTime inicio, LocalDateTime fin);
 
-    List<Archivo> findAllByOrderByTamanoAsc();
+    List<Archivo> findAllByOrderByTamanoAscIdAsc();
 
-    List<Archivo> findAllByOrderByTamanoDesc();
+    List<Archivo> findAllByOrderByTamanoDescIdDesc();
 
-    List<Archivo> findAllByOrderByNombreArchivoAsc();
-    List<Archivo> findAllByOrderByNombreArchivoDesc();
+    List<Archivo> findAllByOrderByNombreArchivoAscIdAsc();
+    List<Archivo> findAllByOrderByNombreArchivoDescIdDesc();
 
-    List<Archivo> findByNombreArchivoContainingIgnoreCase(String nombre);
+    List<Archivo> findByNombreArchivoContainingIgnoreCase(String nombre, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.TextoArchivo(a.id, a.nombreArchivo, a.descripcion) " +
+            "from Archivo a where a.id > :desde order by a.id")
+    List<TextoArchivo> findTextosDespuesDe(@Param("desde") long desde, Pageable pageable);
+
+    /**
+     * Recorre todo el catálogo con un cursor de solo avance: el driver trae las filas de
+     * {@value ArchivoConstants#TAMANO_LOTE_EXPORTACION} en
+     * {@value ArchivoConstants#TAMANO_LOTE_EXPORTACION} (en MySQL con {@code useCursorFetch=true})
+     * y, al ser proyecciones, no se acumulan entidades en el contexto de persistencia. Hay que
+     * consumirlo dentro de una transacción y cerrarlo.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ArchivoConstants.TAMANO_LOTE_EXPORTACION),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.demo.dto.ArchivoResumen(a.id, a.nombreArchivo, a.tipoArchivo, a.tamano, " +
+            "a.hashContenido, a.descripcion, a.fechaSubida) from Archivo a order by a.id")
+    Stream<ArchivoResumen> streamResumenes();
+
+    List<Archivo> findByHashContenidoInOrderByIdAsc(Collection<String> hashes);
+
+    /**
+     * Lee el archivo bloqueando su fila hasta el final de la transacción, para que otra
+     * actualización o una eliminación concurrente no cambie su contenido entretanto.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Archivo a where a.id = :id")
+    Optional<Archivo> findConBloqueo(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Archivo a where a.id in :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "update archivos set codec = 'NINGUNO', tamano_almacenado = tamano where codec is null", nativeQuery = true)
+    int completarCodec();
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.entidad.Archivo;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class ArchivoSpecifications {
+
+    private ArchivoSpecifications() {
+    }
+
+    public static Specification<Archivo> conFiltro(FiltroArchivos filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (filtro.tipo() != null) {
+                predicados.add(cb.equal(root.get("tipoArchivo"), filtro.tipo()));
+            }
+            if (filtro.tamanoMin() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("tamano"), filtro.tamanoMin()));
+            }
+            if (filtro.tamanoMax() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("tamano"), filtro.tamanoMax()));
+            }
+            if (filtro.desde() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fechaSubida"), filtro.desde()));
+            }
+            if (filtro.hasta() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("fechaSubida"), filtro.hasta()));
+            }
+            if (filtro.nombre() != null) {
+                // Prefijo sin funciones sobre la columna, para que pueda usar el índice por nombre
+                predicados.add(cb.like(root.get("nombreArchivo"), escaparLike(filtro.nombre()) + "%", '\\'));
+            }
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Archivo> conIds(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Condición de keyset: filas estrictamente posteriores a ({@code valor}, {@code id}) en el
+     * orden indicado, usando el id como desempate para que el orden sea total.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Archivo> despuesDe(String campo, Sort.Direction direccion, Comparable valor, long id) {
+        return (root, query, cb) -> {
+            Path<Comparable> columna = root.get(campo);
+            Path<Long> columnaId = root.get("id");
+            if (direccion.isAscending()) {
+                return cb.or(cb.greaterThan(columna, valor),
+                        cb.and(cb.equal(columna, valor), cb.greaterThan(columnaId, id)));
+            }
+            return cb.or(cb.lessThan(columna, valor),
+                    cb.and(cb.equal(columna, valor), cb.lessThan(columnaId, id)));
+        };
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.ContenidoArchivo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ContenidoArchivoRepository extends JpaRepository<ContenidoArchivo, String> {
+
+    @Query("select c.hash from ContenidoArchivo c where c.hash > :desde order by c.hash")
+    List<String> findHashesDespuesDe(@Param("desde") String desde, Pageable pageable);
+}
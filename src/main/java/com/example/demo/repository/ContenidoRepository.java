@@ -0,0 +1,74 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.Contenido;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContenidoRepository extends JpaRepository<Contenido, String> {
+
+    @Modifying
+    @Query("update Contenido c set c.referencias = c.referencias + 1 where c.hash = :hash")
+    int sumarReferenciaExistente(@Param("hash") String hash);
+
+    @Modifying
+    @Query(value = "insert into contenidos (hash, tamano, codec, tamano_almacenado, referencias, fecha_creacion) " +
+            "values (:hash, :tamano, :codec, :tamanoAlmacenado, 1, :fecha) " +
+            "on duplicate key update referencias = referencias + 1", nativeQuery = true)
+    int sumarReferencia(@Param("hash") String hash, @Param("tamano") long tamano, @Param("codec") String codec,
+                        @Param("tamanoAlmacenado") long tamanoAlmacenado, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Bloquea la fila del contenido hasta el final de la transacción, creándola sin referencias
+     * si no existe: así también espera a una subida del mismo contenido que aún no ha terminado.
+     */
+    @Modifying
+    @Query(value = "insert into contenidos (hash, tamano, referencias, fecha_creacion) values (:hash, 0, 0, :fecha) " +
+            "on duplicate key update referencias = referencias", nativeQuery = true)
+    int bloquear(@Param("hash") String hash, @Param("fecha") LocalDateTime fecha);
+
+    @Query("select c.hash from Contenido c where c.hash in :hashes and c.referencias > 0")
+    List<String> findConReferencias(@Param("hashes") Collection<String> hashes);
+
+    @Modifying
+    @Query("update Contenido c set c.referencias = c.referencias - 1 where c.hash = :hash")
+    int restarReferencia(@Param("hash") String hash);
+
+    @Modifying
+    @Query("delete from Contenido c where c.hash = :hash and c.referencias <= 0")
+    int eliminarSinReferencias(@Param("hash") String hash);
+
+    @Modifying
+    @Query("update Contenido c set c.referencias = c.referencias - :cantidad where c.hash in :hashes")
+    int restarReferencias(@Param("hashes") Collection<String> hashes, @Param("cantidad") long cantidad);
+
+    @Query("select c from Contenido c where c.hash in :hashes and c.referencias <= 0")
+    List<Contenido> findSinReferencias(@Param("hashes") Collection<String> hashes);
+
+    @Modifying
+    @Query("delete from Contenido c where c.hash in :hashes and c.referencias <= 0")
+    int eliminarSinReferencias(@Param("hashes") Collection<String> hashes);
+
+    List<Contenido> findByHashGreaterThanOrderByHashAsc(String hash, Pageable pageable);
+
+    @Modifying
+    @Query(value = "insert into contenidos (hash, tamano, codec, tamano_almacenado, referencias, fecha_creacion) " +
+            "select a.hash_contenido, max(a.tamano), coalesce(max(a.codec), 'NINGUNO'), " +
+            "coalesce(max(a.tamano_almacenado), max(a.tamano)), count(*), :fecha from archivos a " +
+            "where a.hash_contenido is not null " +
+            "and not exists (select 1 from contenidos c where c.hash = a.hash_contenido) " +
+            "group by a.hash_contenido", nativeQuery = true)
+    int completarReferencias(@Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query(value = "update contenidos set codec = 'NINGUNO', tamano_almacenado = tamano where codec is null", nativeQuery = true)
+    int completarCodec();
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.CursorIntegridad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CursorIntegridadRepository extends JpaRepository<CursorIntegridad, Integer> {
+}
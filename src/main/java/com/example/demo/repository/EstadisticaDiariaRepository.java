@@ -0,0 +1,45 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.TotalTipo;
+import com.example.demo.entidad.EstadisticaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EstadisticaDiariaRepository extends JpaRepository<EstadisticaDiaria, EstadisticaDiaria.Clave> {
+
+    List<EstadisticaDiaria> findByFechaBetweenOrderByFechaAscTipoArchivoAsc(LocalDate desde, LocalDate hasta);
+
+    List<EstadisticaDiaria> findByTipoArchivoAndFechaBetweenOrderByFechaAsc(String tipoArchivo, LocalDate desde, LocalDate hasta);
+
+    @Query("select new com.example.demo.dto.TotalTipo(e.tipoArchivo, sum(e.archivos), sum(e.bytes)) " +
+            "from EstadisticaDiaria e group by e.tipoArchivo order by sum(e.bytes) desc")
+    List<TotalTipo> totalesPorTipo();
+
+    @Modifying
+    @Query(value = "insert into estadisticas_diarias (tipo_archivo, fecha, archivos, bytes) " +
+            "values (:tipo, :fecha, :archivos, :bytes) " +
+            "on duplicate key update archivos = archivos + :archivos, bytes = bytes + :bytes", nativeQuery = true)
+    int sumar(@Param("tipo") String tipo, @Param("fecha") LocalDate fecha,
+              @Param("archivos") long archivos, @Param("bytes") long bytes);
+
+    @Modifying
+    @Query("delete from EstadisticaDiaria e where e.tipoArchivo = :tipo and e.fecha = :fecha and e.archivos <= 0")
+    int eliminarSiVacia(@Param("tipo") String tipo, @Param("fecha") LocalDate fecha);
+
+    @Modifying
+    @Query("delete from EstadisticaDiaria e")
+    int vaciar();
+
+    @Modifying
+    @Query(value = "insert into estadisticas_diarias (tipo_archivo, fecha, archivos, bytes) " +
+            "select tipo_archivo, cast(fecha_subida as date), count(*), sum(tamano) from archivos " +
+            "group by tipo_archivo, cast(fecha_subida as date)", nativeQuery = true)
+    int reconstruir();
+}
@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.FragmentoSubida;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FragmentoSubidaRepository extends JpaRepository<FragmentoSubida, Long> {
+
+    List<FragmentoSubida> findBySesionIdOrderByDesdeAsc(String sesionId);
+
+    Optional<FragmentoSubida> findBySesionIdAndDesde(String sesionId, long desde);
+
+    // Sin cargar la fila: dos reenvíos simultáneos pueden intentar borrarla a la vez
+    @Transactional
+    @Modifying
+    @Query("delete from FragmentoSubida f where f.sesionId = :sesionId and f.desde = :desde")
+    int eliminar(@Param("sesionId") String sesionId, @Param("desde") long desde);
+
+    @Modifying
+    @Query("delete from FragmentoSubida f where f.sesionId = :sesionId")
+    int eliminarPorSesion(@Param("sesionId") String sesionId);
+}
@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.FragmentoVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FragmentoVersionRepository extends JpaRepository<FragmentoVersion, FragmentoVersion.Clave> {
+
+    List<FragmentoVersion> findByVersionIdOrderByPosicionAsc(Long versionId);
+
+    // Un hash por fila, repetido si varias lo comparten: cada fila es una referencia
+    @Query("select f.hashFragmento from FragmentoVersion f where f.versionId in :versionIds")
+    List<String> findHashesPorVersiones(@Param("versionIds") Collection<Long> versionIds);
+
+    @Modifying
+    @Query("delete from FragmentoVersion f where f.versionId in :versionIds")
+    int eliminarPorVersiones(@Param("versionIds") Collection<Long> versionIds);
+}
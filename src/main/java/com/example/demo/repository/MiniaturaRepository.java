@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.Miniatura;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface MiniaturaRepository extends JpaRepository<Miniatura, String> {
+
+    @Modifying
+    @Query("delete from Miniatura m where m.hash = :hash")
+    int eliminarPorHash(@Param("hash") String hash);
+
+    @Modifying
+    @Query("delete from Miniatura m where m.hash in :hashes")
+    int eliminarPorHashes(@Param("hashes") Collection<String> hashes);
+}
@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.ProblemaIntegridad;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProblemaIntegridadRepository extends JpaRepository<ProblemaIntegridad, Long> {
+
+    Optional<ProblemaIntegridad> findFirstByHashAndFechaResolucionIsNull(String hash);
+
+    List<ProblemaIntegridad> findByFechaResolucionIsNullOrderByFechaDeteccionDesc();
+
+    List<ProblemaIntegridad> findAllByOrderByFechaDeteccionDesc(Pageable pageable);
+
+    @Query("select p.hash from ProblemaIntegridad p where p.fechaResolucion is null")
+    List<String> findHashesAbiertos();
+
+    // Los contenidos eliminados desde que se detectó el problema ya no pueden servirse
+    @Modifying
+    @Query("update ProblemaIntegridad p set p.fechaResolucion = :fecha where p.fechaResolucion is null " +
+            "and not exists (select 1 from Contenido c where c.hash = p.hash)")
+    int resolverSinContenido(@Param("fecha") LocalDateTime fecha);
+}
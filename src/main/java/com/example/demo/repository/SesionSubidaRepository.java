@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.SesionSubida;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SesionSubidaRepository extends JpaRepository<SesionSubida, String> {
+
+    List<SesionSubida> findByFechaExpiracionBefore(LocalDateTime fecha);
+}
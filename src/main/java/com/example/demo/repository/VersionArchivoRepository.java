@@ -0,0 +1,27 @@
+package com.example.demo.repository;
+
+import com.example.demo.entidad.VersionArchivo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VersionArchivoRepository extends JpaRepository<VersionArchivo, Long> {
+
+    List<VersionArchivo> findByArchivoIdOrderByNumeroDesc(Long archivoId);
+
+    Optional<VersionArchivo> findByArchivoIdAndNumero(Long archivoId, int numero);
+
+    @Query("select v.id from VersionArchivo v where v.archivoId in :archivoIds")
+    List<Long> findIdsPorArchivos(@Param("archivoIds") Collection<Long> archivoIds);
+
+    @Modifying
+    @Query("delete from VersionArchivo v where v.id in :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,35 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.EstadisticaCache;
+import com.example.demo.service.almacenamiento.CacheContenido;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class AdministracionService {
+
+    private final CacheManager cacheManager;
+    private final CacheContenido cacheContenido;
+
+    public List<EstadisticaCache> estadisticasCache() {
+        Stream<EstadisticaCache> metadatos = cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(this::estadistica);
+        return Stream.concat(metadatos, cacheContenido.estadistica().stream()).toList();
+    }
+
+    private EstadisticaCache estadistica(Cache cache) {
+        Cache destino = cache instanceof TransactionAwareCacheDecorator decorador ? decorador.getTargetCache() : cache;
+        return EstadisticaCache.de(cache.getName(), (com.github.benmanes.caffeine.cache.Cache<?, ?>) destino.getNativeCache());
+    }
+}
@@ -1,61 +1,249 @@
 package com.example.demo.service;
 
+import com.example.demo.config.EnrutadorDataSource;
+import com.example.demo.dto.ArchivoCacheado;
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.dto.OrdenArchivos;
+import com.example.demo.dto.PaginaArchivos;
+import com.example.demo.dto.ResultadoSubida;
 import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.VersionArchivo;
+import com.example.demo.evento.ArchivoEliminadoEvent;
+import com.example.demo.evento.ArchivoGuardadoEvent;
 import com.example.demo.exception.ArchivoNoEncontradoException;
 import com.example.demo.exception.ArchivoNoValidoException;
 import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.ArchivoSpecifications;
+import com.example.demo.service.almacenamiento.ContenidoGuardado;
+import com.example.demo.service.busqueda.IndiceNombres;
+import com.example.demo.service.versiones.VersionService;
 import com.example.demo.utils.ArchivoConstants;
 import com.example.demo.utils.Mensajes;
+import com.example.demo.utils.TipoMime;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
+// Un temporizador por método público (etiquetas class y method), con histograma para percentiles
+@Timed(value = "archivos.servicio", histogram = true)
 @Service
 @RequiredArgsConstructor
 public class ArchivoService {
 
+    private static final char SEPARADOR_CURSOR = '|';
+
     private final ArchivoRepository archivoRepository;
+    private final ContenidoService contenidoService;
+    private final EstadisticasService estadisticasService;
+    private final MetricasArchivos metricasArchivos;
+    private final IndiceNombres indiceNombres;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VersionService versionService;
+    private final CacheManager cacheManager;
 
 
+    @Transactional
+    @CacheEvict(cacheNames = ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS, allEntries = true)
     public Archivo guardarArchivo(MultipartFile archivo, String descripcion) throws IOException {
-        validarArchivo(archivo);
+        TipoMime tipo = validarArchivo(archivo);
+        return guardarArchivo(archivo.getOriginalFilename(), tipo.getMime(), descripcion,
+                archivo, ArchivoConstants.MAX_SIZE);
+    }
 
+    @Transactional
+    @CacheEvict(cacheNames = ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS, allEntries = true)
+    public Archivo guardarArchivo(String nombreArchivo, String tipoArchivo, String descripcion,
+                                  InputStreamSource fuente, long tamanoMaximo) throws IOException {
         Archivo nuevoArchivo = Archivo.builder()
-                .nombreArchivo(archivo.getOriginalFilename())
-                .tipoArchivo(archivo.getContentType())
-                .archivo(archivo.getBytes())
-                .tamano(archivo.getSize())
+                .nombreArchivo(nombreArchivo)
+                .tipoArchivo(tipoArchivo)
                 .descripcion(descripcion)
                 .fechaSubida(LocalDateTime.now())
                 .build();
+        escribirContenido(nuevoArchivo, fuente, tamanoMaximo);
+
+        Archivo guardado = archivoRepository.save(nuevoArchivo);
+        estadisticasService.registrarAltas(List.of(guardado));
+        eventPublisher.publishEvent(new ArchivoGuardadoEvent(guardado));
+        return guardado;
+    }
+
+
+    /**
+     * Guarda varios archivos en una sola transacción. Primero valida todos; los rechazados se
+     * informan en su posición y no impiden guardar el resto. El contenido se escribe archivo a
+     * archivo y las filas se insertan al final, juntas, para que salgan en lotes JDBC.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS, allEntries = true)
+    public List<ResultadoSubida> guardarLote(List<MultipartFile> archivos, List<String> descripciones) throws IOException {
+        if (archivos == null || archivos.isEmpty()) {
+            throw new ArchivoNoValidoException(Mensajes.LOTE_VACIO);
+        }
+        if (archivos.size() > ArchivoConstants.MAX_ARCHIVOS_LOTE) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.LOTE_EXCEDE_ARCHIVOS, ArchivoConstants.MAX_ARCHIVOS_LOTE));
+        }
+
+        ResultadoSubida[] resultados = new ResultadoSubida[archivos.size()];
+        TipoMime[] tipos = new TipoMime[archivos.size()];
+        List<Integer> validos = new ArrayList<>();
+        for (int i = 0; i < archivos.size(); i++) {
+            try {
+                tipos[i] = validarArchivo(archivos.get(i));
+                validarDescripcion(descripcion(descripciones, i));
+                validos.add(i);
+            } catch (ArchivoNoValidoException e) {
+                resultados[i] = ResultadoSubida.rechazado(archivos.get(i).getOriginalFilename(), e.getMessage());
+            }
+        }
+
+        List<Archivo> nuevos = new ArrayList<>(validos.size());
+        boolean[] duplicados = new boolean[validos.size()];
+        for (int i = 0; i < validos.size(); i++) {
+            MultipartFile archivo = archivos.get(validos.get(i));
+            Archivo nuevoArchivo = Archivo.builder()
+                    .nombreArchivo(archivo.getOriginalFilename())
+                    .tipoArchivo(tipos[validos.get(i)].getMime())
+                    .descripcion(descripcion(descripciones, validos.get(i)))
+                    .fechaSubida(LocalDateTime.now())
+                    .build();
+            duplicados[i] = escribirContenido(nuevoArchivo, archivo, ArchivoConstants.MAX_SIZE).duplicado();
+            nuevos.add(nuevoArchivo);
+        }
+
+        archivoRepository.saveAll(nuevos);
+        estadisticasService.registrarAltas(nuevos);
+        for (int i = 0; i < nuevos.size(); i++) {
+            eventPublisher.publishEvent(new ArchivoGuardadoEvent(nuevos.get(i)));
+            resultados[validos.get(i)] = ResultadoSubida.guardado(nuevos.get(i), duplicados[i]);
+        }
+        return Arrays.asList(resultados);
+    }
+
 
-        return archivoRepository.save(nuevoArchivo);
+    /**
+     * Archivos a incluir en un ZIP: los ids indicados, en ese orden, o si no hay ids los que
+     * cumplen el filtro, de los más recientes a los más antiguos.
+     */
+    @Transactional(readOnly = true)
+    public List<Archivo> seleccionarArchivos(List<Long> ids, FiltroArchivos filtro) {
+        List<Archivo> archivos;
+        if (ids != null && !ids.isEmpty()) {
+            if (ids.size() > ArchivoConstants.MAX_ARCHIVOS_ZIP) {
+                throw new ArchivoNoValidoException(String.format(Mensajes.ZIP_EXCEDE_ARCHIVOS, ArchivoConstants.MAX_ARCHIVOS_ZIP));
+            }
+            Map<Long, Archivo> porId = archivoRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Archivo::getId, Function.identity()));
+            archivos = ids.stream().distinct().map(id -> {
+                Archivo archivo = porId.get(id);
+                if (archivo == null) {
+                    throw new ArchivoNoEncontradoException(String.format(Mensajes.ARCHIVO_NO_ENCONTRADO_POR_ID, id));
+                }
+                return archivo;
+            }).toList();
+        } else {
+            validarFiltro(filtro);
+            Sort sort = Sort.by(Sort.Direction.DESC, OrdenArchivos.FECHA.getCampo()).and(Sort.by(Sort.Direction.DESC, "id"));
+            archivos = archivoRepository.findBy(ArchivoSpecifications.conFiltro(filtro),
+                    consulta -> consulta.sortBy(sort).limit(ArchivoConstants.MAX_ARCHIVOS_ZIP + 1).all());
+            if (archivos.size() > ArchivoConstants.MAX_ARCHIVOS_ZIP) {
+                throw new ArchivoNoValidoException(String.format(Mensajes.ZIP_EXCEDE_ARCHIVOS, ArchivoConstants.MAX_ARCHIVOS_ZIP));
+            }
+        }
+
+        if (archivos.isEmpty()) {
+            throw new ArchivoNoEncontradoException(Mensajes.ZIP_SIN_ARCHIVOS);
+        }
+        return archivos;
     }
 
 
+    /**
+     * En la caché se guarda una copia inmutable; cada llamada recibe su propio {@link Archivo}.
+     * Solo se cachea lo leído de la primaria: una réplica retrasada devolvería la fila anterior a
+     * una actualización y la dejaría en la caché para todos, también para quien la escribió.
+     */
+    @Transactional(readOnly = true)
     public Archivo obtenerArchivo(Long id) {
-        return archivoRepository.findById(id)
-                .orElseThrow(() -> new ArchivoNoEncontradoException(Mensajes.ARCHIVO_NO_ENCONTRADO + id));
+        Cache cache = cacheManager.getCache(ArchivoConstants.CACHE_ARCHIVOS);
+        ArchivoCacheado cacheado = cache.get(id, ArchivoCacheado.class);
+        if (cacheado == null) {
+            cacheado = ArchivoCacheado.de(archivoRepository.findById(id)
+                    .orElseThrow(() -> new ArchivoNoEncontradoException(Mensajes.ARCHIVO_NO_ENCONTRADO + id)));
+            if (!EnrutadorDataSource.lecturaEnReplica()) {
+                cache.put(id, cacheado);
+            }
+        }
+        return cacheado.aArchivo();
+    }
+
+
+    /**
+     * Búsqueda paginada por keyset: cada página continúa a partir del último elemento de la
+     * anterior, así que pedir la página N cuesta lo mismo que pedir la primera.
+     */
+    @Transactional(readOnly = true)
+    public PaginaArchivos buscar(FiltroArchivos filtro, OrdenArchivos orden, Sort.Direction direccion,
+                                 String cursor, int limite) {
+        validarFiltro(filtro);
+        validarLimite(limite);
+
+        Specification<Archivo> especificacion = ArchivoSpecifications.conFiltro(filtro);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = leerCursor(cursor);
+            especificacion = especificacion.and(ArchivoSpecifications.despuesDe(
+                    orden.getCampo(), direccion, valorCursor(orden, partes[0]), Long.parseLong(partes[1])));
+        }
+        Sort sort = Sort.by(direccion, orden.getCampo()).and(Sort.by(direccion, "id"));
+
+        List<Archivo> archivos = archivoRepository.findBy(especificacion, consulta -> consulta.sortBy(sort).limit(limite + 1).all());
+        if (archivos.size() <= limite) {
+            return new PaginaArchivos(archivos, null);
+        }
+
+        List<Archivo> pagina = archivos.subList(0, limite);
+        return new PaginaArchivos(pagina, crearCursor(orden, pagina.get(limite - 1)));
     }
 
 
+    @Transactional(readOnly = true)
     public List<Archivo> obtenerTodos() {
         return archivoRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorTipo(String tipo) {
         if (tipo == null || tipo.isBlank()) {
             throw new ArchivoNoValidoException(Mensajes.TIPO_VACIO);
         }
 
-        List<Archivo> archivos = archivoRepository.findByTipoArchivoIgnoreCase(tipo);
+        List<Archivo> archivos = archivoRepository.findByTipoArchivo(TipoMime.normalizar(tipo));
 
         if (archivos.isEmpty()) {
             throw new ArchivoNoEncontradoException(Mensajes.ARCHIVOS_NO_ENCONTRADOS_POR_TIPO + tipo);
@@ -65,10 +253,23 @@ public class ArchivoService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<Archivo> ultimos10Archivos() {
-        return archivoRepository.findTop10ByOrderByFechaSubidaDesc();
+        Cache cache = cacheManager.getCache(ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS);
+        @SuppressWarnings("unchecked")
+        List<ArchivoCacheado> cacheados = cache.get(SimpleKey.EMPTY, List.class);
+        if (cacheados == null) {
+            cacheados = archivoRepository.findTop10ByOrderByFechaSubidaDescIdDesc().stream()
+                    .map(ArchivoCacheado::de)
+                    .toList();
+            if (!EnrutadorDataSource.lecturaEnReplica()) {
+                cache.put(SimpleKey.EMPTY, cacheados);
+            }
+        }
+        return cacheados.stream().map(ArchivoCacheado::aArchivo).toList();
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> archivosPorTamano(long tamanoMinimo) {
         if (tamanoMinimo < 0) {
             throw new ArchivoNoValidoException(Mensajes.TAMANO_NEGATIVO);
@@ -83,6 +284,7 @@ public class ArchivoService {
         return archivos;
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> archivosEntreFechas(LocalDateTime inicio, LocalDateTime fin) {
         if (inicio == null || fin == null) {
             throw new ArchivoNoValidoException(Mensajes.FECHAS_NULAS);
@@ -101,41 +303,87 @@ public class ArchivoService {
     }
 
 
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ArchivoConstants.CACHE_ARCHIVOS, key = "#id"),
+            @CacheEvict(cacheNames = ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS, allEntries = true)
+    })
     public Archivo actualizarArchivo(Long id, MultipartFile archivoNuevo, String descripcion) throws IOException {
-        Archivo archivoExistente = archivoRepository.findById(id)
+        Archivo archivoExistente = archivoRepository.findConBloqueo(id)
                 .orElseThrow(() -> new ArchivoNoEncontradoException(
                         String.format(ArchivoConstants.ARCHIVO_NO_ENCONTRADO, id)
                 ));
 
+        String hashAnterior = null;
+        String tipoAnterior = archivoExistente.getTipoArchivo();
+        LocalDateTime fechaAnterior = archivoExistente.getFechaSubida();
+        long tamanoAnterior = archivoExistente.getTamano();
         if (archivoNuevo != null && !archivoNuevo.isEmpty()) {
-            validarArchivo(archivoNuevo); // Aquí ya lanza excepción si no cumple
+            TipoMime tipo = validarArchivo(archivoNuevo); // Aquí ya lanza excepción si no cumple
+            hashAnterior = archivoExistente.getHashContenido();
+            VersionArchivo anterior = versionService.instantanea(archivoExistente);
             archivoExistente.setNombreArchivo(archivoNuevo.getOriginalFilename());
-            archivoExistente.setTipoArchivo(archivoNuevo.getContentType());
-            archivoExistente.setArchivo(archivoNuevo.getBytes());
-            archivoExistente.setTamano(archivoNuevo.getSize());
+            archivoExistente.setTipoArchivo(tipo.getMime());
+            escribirContenido(archivoExistente, archivoNuevo, ArchivoConstants.MAX_SIZE);
+            // Volver a subir el mismo contenido no crea versión
+            if (!archivoExistente.getHashContenido().equals(hashAnterior)) {
+                versionService.archivar(anterior, archivoExistente);
+            }
             archivoExistente.setFechaSubida(LocalDateTime.now());
         }
 
         archivoExistente.setDescripcion(descripcion);
 
-        return archivoRepository.save(archivoExistente);
+        Archivo actualizado = archivoRepository.save(archivoExistente);
+        contenidoService.liberar(hashAnterior);
+        estadisticasService.registrarCambio(tipoAnterior, fechaAnterior, tamanoAnterior, actualizado);
+        eventPublisher.publishEvent(new ArchivoGuardadoEvent(actualizado));
+        return actualizado;
     }
 
 
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ArchivoConstants.CACHE_ARCHIVOS, key = "#id"),
+            @CacheEvict(cacheNames = ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS, allEntries = true)
+    })
     public void eliminarArchivo(Long id) {
-        if (!archivoRepository.existsById(id)) {
-            throw new ArchivoNoEncontradoException(String.format(Mensajes.ARCHIVO_NO_ENCONTRADO_POR_ID, id));
+        Archivo archivo = archivoRepository.findConBloqueo(id)
+                .orElseThrow(() -> new ArchivoNoEncontradoException(String.format(Mensajes.ARCHIVO_NO_ENCONTRADO_POR_ID, id)));
+        archivoRepository.delete(archivo);
+        versionService.eliminarDeArchivos(List.of(id));
+        contenidoService.liberar(archivo.getHashContenido());
+        estadisticasService.registrarBaja(archivo);
+        eventPublisher.publishEvent(new ArchivoEliminadoEvent(archivo));
+    }
+
+
+    // Lee la subida por bloques hacia el almacén, sin cargarla entera en memoria
+    private ContenidoGuardado escribirContenido(Archivo destino, InputStreamSource fuente, long tamanoMaximo) throws IOException {
+        String mensajeExceso = String.format(Mensajes.ARCHIVO_EXCEDE_TAMANO,
+                destino.getNombreArchivo(), tamanoMaximo / (1024 * 1024));
+
+        ContenidoGuardado contenido = contenidoService.guardar(fuente, destino.getTipoArchivo(), tamanoMaximo, mensajeExceso);
+        destino.setHashContenido(contenido.hash());
+        destino.setTamano(contenido.tamano());
+        destino.setCodec(contenido.codec());
+        destino.setTamanoAlmacenado(contenido.tamanoAlmacenado());
+        metricasArchivos.subida(destino.getTipoArchivo(), contenido.tamano());
+        if (!contenido.duplicado()) {
+            metricasArchivos.contenidoNuevo(destino.getTipoArchivo(), contenido.tamano());
         }
-        archivoRepository.deleteById(id);
+        return contenido;
     }
 
 
-    private void validarArchivo(MultipartFile archivo) {
+    private TipoMime validarArchivo(MultipartFile archivo) {
         if (archivo == null || archivo.isEmpty()) {
+            metricasArchivos.rechazo(MetricasArchivos.MOTIVO_VACIO);
             throw new ArchivoNoValidoException(Mensajes.ARCHIVO_VACIO);
         }
 
         if (archivo.getSize() > ArchivoConstants.MAX_SIZE) {
+            metricasArchivos.rechazo(MetricasArchivos.MOTIVO_TAMANO);
             throw new ArchivoNoValidoException(
                     String.format(Mensajes.ARCHIVO_EXCEDE_TAMANO,
                             archivo.getOriginalFilename(),
@@ -143,19 +391,103 @@ public class ArchivoService {
             );
         }
 
-        if (!ArchivoConstants.ALLOWED_TYPES.contains(archivo.getContentType())) {
-            throw new ArchivoNoValidoException(
-                    String.format(Mensajes.TIPO_ARCHIVO_NO_PERMITIDO, archivo.getContentType())
+        return validarTipo(archivo.getContentType());
+    }
+
+    /**
+     * Devuelve el tipo registrado del Content-Type recibido; su forma canónica es la que se guarda.
+     */
+    public TipoMime validarTipo(String tipoArchivo) {
+        return TipoMime.reconocer(tipoArchivo).orElseThrow(() -> {
+            metricasArchivos.rechazo(MetricasArchivos.MOTIVO_TIPO);
+            return new ArchivoNoValidoException(
+                    String.format(Mensajes.TIPO_ARCHIVO_NO_PERMITIDO, tipoArchivo)
             );
+        });
+    }
+
+    public void validarDescripcion(String descripcion) {
+        if (descripcion == null || descripcion.isBlank()) {
+            metricasArchivos.rechazo(MetricasArchivos.MOTIVO_DESCRIPCION);
+            throw new ArchivoNoValidoException(Mensajes.DESCRIPCION_VACIA);
+        }
+    }
+
+    // Cada archivo del lote toma la descripción de su misma posición; con una sola, vale para todos
+    private String descripcion(List<String> descripciones, int posicion) {
+        if (descripciones == null || descripciones.isEmpty()) {
+            return null;
+        }
+        return descripciones.size() == 1 ? descripciones.get(0)
+                : posicion < descripciones.size() ? descripciones.get(posicion) : null;
+    }
+
+    private void validarLimite(int limite) {
+        if (limite < 1 || limite > ArchivoConstants.LIMITE_PAGINA_MAXIMO) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.LIMITE_PAGINA_INVALIDO, ArchivoConstants.LIMITE_PAGINA_MAXIMO));
+        }
+    }
+
+    /**
+     * Rechaza filtros con límites negativos o invertidos, que no tienen ningún archivo.
+     */
+    public void validarFiltro(FiltroArchivos filtro) {
+        if (filtro.tamanoMin() != null && filtro.tamanoMin() < 0) {
+            throw new ArchivoNoValidoException(Mensajes.TAMANO_NEGATIVO);
+        }
+        if (filtro.tamanoMax() != null && filtro.tamanoMax() < 0) {
+            throw new ArchivoNoValidoException(Mensajes.TAMANO_MAXIMO_NEGATIVO);
+        }
+        if (filtro.tamanoMin() != null && filtro.tamanoMax() != null && filtro.tamanoMax() < filtro.tamanoMin()) {
+            throw new ArchivoNoValidoException(Mensajes.TAMANO_MAXIMO_MENOR_MINIMO);
+        }
+        if (filtro.desde() != null && filtro.hasta() != null && filtro.hasta().isBefore(filtro.desde())) {
+            throw new ArchivoNoValidoException(Mensajes.FIN_ANTES_INICIO);
+        }
+    }
+
+    private String crearCursor(OrdenArchivos orden, Archivo ultimo) {
+        String valor = switch (orden) {
+            case FECHA -> ultimo.getFechaSubida().toString();
+            case TAMANO -> Long.toString(ultimo.getTamano());
+            case NOMBRE -> ultimo.getNombreArchivo();
+        };
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((valor + SEPARADOR_CURSOR + ultimo.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] leerCursor(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf(SEPARADOR_CURSOR);
+            String[] partes = {texto.substring(0, separador), texto.substring(separador + 1)};
+            Long.parseLong(partes[1]);
+            return partes;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ArchivoNoValidoException(Mensajes.CURSOR_INVALIDO);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable valorCursor(OrdenArchivos orden, String valor) {
+        try {
+            return switch (orden) {
+                case FECHA -> LocalDateTime.parse(valor);
+                case TAMANO -> Long.parseLong(valor);
+                case NOMBRE -> valor;
+            };
+        } catch (RuntimeException e) {
+            throw new ArchivoNoValidoException(Mensajes.CURSOR_INVALIDO);
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorTipoFechaAsc(String tipo) {
         if (tipo == null || tipo.isBlank()) {
             throw new ArchivoNoValidoException(Mensajes.TIPO_ARCHIVO_VACIO);
         }
 
-        List<Archivo> archivos = archivoRepository.findByTipoArchivoIgnoreCaseOrderByFechaSubidaAsc(tipo);
+        List<Archivo> archivos = archivoRepository.findByTipoArchivoOrderByFechaSubidaAscIdAsc(TipoMime.normalizar(tipo));
         if (archivos.isEmpty()) {
             throw new ArchivoNoEncontradoException(String.format(Mensajes.ARCHIVOS_NO_ENCONTRADOS_POR_TIPO, tipo));
         }
@@ -163,12 +495,13 @@ public class ArchivoService {
         return archivos;
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorTipoFechaDesc(String tipo) {
         if (tipo == null || tipo.isBlank()) {
             throw new ArchivoNoValidoException(Mensajes.TIPO_ARCHIVO_VACIO);
         }
 
-        List<Archivo> archivos = archivoRepository.findByTipoArchivoIgnoreCaseOrderByFechaSubidaDesc(tipo);
+        List<Archivo> archivos = archivoRepository.findByTipoArchivoOrderByFechaSubidaDescIdDesc(TipoMime.normalizar(tipo));
         if (archivos.isEmpty()) {
             throw new ArchivoNoEncontradoException(String.format(Mensajes.ARCHIVOS_NO_ENCONTRADOS_POR_TIPO, tipo));
         }
@@ -177,28 +510,49 @@ public class ArchivoService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorTamanoAsc() {
-        return archivoRepository.findAllByOrderByTamanoAsc();
+        return archivoRepository.findAllByOrderByTamanoAscIdAsc();
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorTamanoDesc() {
-        return archivoRepository.findAllByOrderByTamanoDesc();
+        return archivoRepository.findAllByOrderByTamanoDescIdDesc();
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorNombreAsc() {
-        return archivoRepository.findAllByOrderByNombreArchivoAsc();
+        return archivoRepository.findAllByOrderByNombreArchivoAscIdAsc();
     }
 
+    @Transactional(readOnly = true)
     public List<Archivo> listarPorNombreDesc() {
-        return archivoRepository.findAllByOrderByNombreArchivoDesc();
+        return archivoRepository.findAllByOrderByNombreArchivoDescIdDesc();
     }
 
-    public List<Archivo> buscarPorNombre(String nombre) {
+    /**
+     * Busca en el nombre y la descripción con el índice en memoria; mientras el índice se
+     * carga al arrancar se recurre a la consulta sobre la tabla.
+     */
+    @Transactional(readOnly = true)
+    public List<Archivo> buscarPorNombre(String nombre, boolean soloPrefijo, int pagina, int limite) {
         if (nombre == null || nombre.isBlank()) {
             throw new ArchivoNoValidoException(Mensajes.NOMBRE_BUSQUEDA_VACIO);
         }
-
-        List<Archivo> archivos = archivoRepository.findByNombreArchivoContainingIgnoreCase(nombre);
+        if (pagina < 0) {
+            throw new ArchivoNoValidoException(Mensajes.PAGINA_NEGATIVA);
+        }
+        validarLimite(limite);
+
+        List<Archivo> archivos;
+        if (indiceNombres.isListo()) {
+            List<Long> ids = indiceNombres.buscar(nombre, soloPrefijo, pagina, limite);
+            Map<Long, Archivo> porId = archivoRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Archivo::getId, Function.identity()));
+            archivos = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+        } else {
+            archivos = archivoRepository.findByNombreArchivoContainingIgnoreCase(nombre, PageRequest.of(pagina, limite));
+        }
         if (archivos.isEmpty()) {
             throw new ArchivoNoEncontradoException(
                     String.format(Mensajes.ARCHIVOS_NO_ENCONTRADOS_POR_NOMBRE, nombre)
@@ -0,0 +1,263 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CompresionProperties;
+import com.example.demo.entidad.Codec;
+import com.example.demo.entidad.Contenido;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.repository.MiniaturaRepository;
+import com.example.demo.service.almacenamiento.AlmacenContenido;
+import com.example.demo.service.almacenamiento.CacheContenido;
+import com.example.demo.service.almacenamiento.ContenidoLiberado;
+import com.example.demo.service.almacenamiento.ContenidoGuardado;
+import com.example.demo.service.almacenamiento.EntradaContenido;
+import com.example.demo.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Guarda cada contenido una sola vez y cuenta cuántos archivos lo referencian.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContenidoService {
+
+    private final AlmacenContenido almacenContenido;
+    private final ContenidoRepository contenidoRepository;
+    private final MiniaturaRepository miniaturaRepository;
+    private final CacheContenido cacheContenido;
+    private final CompresionProperties compresionProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Lee la fuente una sola vez hacia una clave temporal del almacén calculando el hash de esos
+     * mismos bytes; después se confirma con el hash o, si ese contenido ya existía, se descarta
+     * y solo se suma una referencia. Si el tipo se comprime, la versión comprimida se genera
+     * desde lo ya guardado. Si la transacción se deshace, el contenido escrito se borra.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ContenidoGuardado guardar(InputStreamSource fuente, String tipoMime, long tamanoMaximo,
+                                     String mensajeExceso) throws IOException {
+        try (EntradaContenido entrada = new EntradaContenido(fuente.getInputStream(), tamanoMaximo, mensajeExceso)) {
+            String temporal;
+            try {
+                temporal = almacenContenido.guardarTemporal(entrada);
+            } catch (RuntimeException e) {
+                // El driver JDBC envuelve lo que lanza el flujo al leerlo
+                if (entrada.getBytesLeidos() > tamanoMaximo) {
+                    throw new ArchivoNoValidoException(mensajeExceso);
+                }
+                throw e;
+            }
+            return registrar(temporal, entrada.hash(), entrada.getBytesLeidos(), tipoMime);
+        }
+    }
+
+    /**
+     * Como {@link #guardar(InputStreamSource, String, long, String)} para bytes que ya están en
+     * memoria: el hash se calcula sobre el propio array y, si el contenido ya existe, no se
+     * escribe nada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ContenidoGuardado guardar(byte[] datos, String tipoMime) throws IOException {
+        String hash = HashUtils.sha256(datos);
+        if (contenidoRepository.sumarReferenciaExistente(hash) > 0) {
+            return duplicado(hash, datos.length);
+        }
+        return guardar(new ByteArrayResource(datos), tipoMime, datos.length, null);
+    }
+
+    private ContenidoGuardado registrar(String temporal, String hash, long tamano, String tipoMime) throws IOException {
+        try {
+            if (contenidoRepository.sumarReferenciaExistente(hash) > 0) {
+                return duplicado(hash, tamano);
+            }
+            Codec codec = compresionProperties.codecPara(tipoMime);
+            long tamanoAlmacenado = tamano;
+            if (codec == Codec.DEFLATE) {
+                Comprimido comprimido = comprimir(temporal);
+                // Si apenas se gana espacio no compensa descomprimir en cada descarga
+                if (comprimido.tamano() * 100 > tamano * (100 - compresionProperties.getAhorroMinimo())) {
+                    almacenContenido.descartar(comprimido.clave());
+                    codec = Codec.NINGUNO;
+                } else {
+                    almacenContenido.descartar(temporal);
+                    temporal = comprimido.clave();
+                    tamanoAlmacenado = comprimido.tamano();
+                }
+            }
+
+            // La fila se registra antes de confirmar: queda bloqueada hasta el commit, y el
+            // borrado de un contenido liberado espera a ese bloqueo antes de tocar el almacén
+            contenidoRepository.sumarReferencia(hash, tamano, codec.name(), tamanoAlmacenado, LocalDateTime.now());
+            almacenContenido.confirmar(temporal, hash);
+            temporal = null;
+            eliminarSiSeDeshace(hash);
+            return new ContenidoGuardado(hash, tamano, codec, tamanoAlmacenado, false);
+        } finally {
+            if (temporal != null) {
+                almacenContenido.descartar(temporal);
+            }
+        }
+    }
+
+    private ContenidoGuardado duplicado(String hash, long tamano) {
+        Contenido existente = contenidoRepository.findById(hash).orElseThrow();
+        return new ContenidoGuardado(hash, tamano, existente.getCodec(), existente.getTamanoAlmacenado(), true);
+    }
+
+    private void eliminarSiSeDeshace(String hash) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == STATUS_ROLLED_BACK) {
+                    eliminarSinReferencias(List.of(hash));
+                }
+            }
+        });
+    }
+
+    /**
+     * Abre el contenido original desde {@code desde}, descomprimiéndolo si hace falta.
+     */
+    public InputStream abrir(String hash, Codec codec, long desde) throws IOException {
+        if (codec != Codec.DEFLATE) {
+            return almacenContenido.abrir(hash, desde);
+        }
+        InputStream datos = new InflaterInputStream(almacenContenido.abrir(hash, 0));
+        try {
+            datos.skipNBytes(desde);
+        } catch (IOException e) {
+            datos.close();
+            throw e;
+        }
+        return datos;
+    }
+
+    /**
+     * Quita una referencia y, si era la última, borra su miniatura y, tras el commit, el
+     * contenido del almacén y de la caché de contenido.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void liberar(String hash) {
+        if (hash == null) {
+            return;
+        }
+        contenidoRepository.restarReferencia(hash);
+        if (contenidoRepository.eliminarSinReferencias(hash) == 0) {
+            return;
+        }
+        miniaturaRepository.eliminarPorHash(hash);
+        eliminarTrasCommit(List.of(hash));
+    }
+
+    /**
+     * Como {@link #liberar(String)} para muchos archivos a la vez, con sentencias por conjuntos
+     * en lugar de una por archivo. {@code hashes} lleva un hash por archivo eliminado, repetido
+     * si varios compartían contenido.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ContenidoLiberado liberarVarios(Collection<String> hashes) {
+        Map<String, Long> referencias = hashes.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+        if (referencias.isEmpty()) {
+            return ContenidoLiberado.NADA;
+        }
+        // Casi siempre cada archivo tiene su propio contenido y basta una sentencia
+        Map<Long, List<String>> porCantidad = new TreeMap<>();
+        referencias.forEach((hash, cantidad) -> porCantidad.computeIfAbsent(cantidad, c -> new ArrayList<>()).add(hash));
+        porCantidad.forEach((cantidad, grupo) -> contenidoRepository.restarReferencias(grupo, cantidad));
+
+        List<Contenido> sinReferencias = contenidoRepository.findSinReferencias(referencias.keySet());
+        if (sinReferencias.isEmpty()) {
+            return ContenidoLiberado.NADA;
+        }
+        List<String> liberados = sinReferencias.stream().map(Contenido::getHash).toList();
+        long bytes = sinReferencias.stream()
+                .mapToLong(contenido -> contenido.getTamanoAlmacenado() != null ? contenido.getTamanoAlmacenado() : contenido.getTamano())
+                .sum();
+        miniaturaRepository.eliminarPorHashes(liberados);
+        contenidoRepository.eliminarSinReferencias(liberados);
+        eliminarTrasCommit(liberados);
+        return new ContenidoLiberado(liberados.size(), bytes);
+    }
+
+    private void eliminarTrasCommit(List<String> hashes) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eliminarSinReferencias(hashes);
+            }
+        });
+    }
+
+    /**
+     * Borra del almacén los contenidos que siguen sin referencias. Cada fila se bloquea antes de
+     * comprobarlo, en orden para no interbloquearse: una subida concurrente del mismo contenido
+     * o ya ha sumado su referencia y se respeta, o espera y vuelve a escribirlo tras el borrado.
+     */
+    private void eliminarSinReferencias(List<String> hashes) {
+        List<String> ordenados = hashes.stream().sorted().toList();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaccion.executeWithoutResult(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            ordenados.forEach(hash -> contenidoRepository.bloquear(hash, ahora));
+            Set<String> usados = new HashSet<>(contenidoRepository.findConReferencias(ordenados));
+            List<String> huerfanos = ordenados.stream().filter(hash -> !usados.contains(hash)).toList();
+            for (String hash : huerfanos) {
+                cacheContenido.invalidar(hash);
+                try {
+                    almacenContenido.eliminar(hash);
+                } catch (IOException e) {
+                    log.warn("No se pudo eliminar el contenido {}", hash, e);
+                }
+            }
+            if (!huerfanos.isEmpty()) {
+                contenidoRepository.eliminarSinReferencias(huerfanos);
+            }
+        });
+    }
+
+    private Comprimido comprimir(String temporal) throws IOException {
+        Deflater deflater = new Deflater(compresionProperties.getNivel());
+        try (InputStream datos = new DeflaterInputStream(almacenContenido.abrir(temporal, 0), deflater)) {
+            String clave = almacenContenido.guardarTemporal(datos);
+            return new Comprimido(clave, deflater.getBytesWritten());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private record Comprimido(String clave, long tamano) {
+    }
+}
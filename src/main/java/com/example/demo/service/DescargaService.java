@@ -0,0 +1,442 @@
+package com.example.demo.service;
+
+import com.example.demo.config.DescargaProperties;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Codec;
+import com.example.demo.entidad.VersionArchivo;
+import com.example.demo.exception.ArchivoNoEncontradoException;
+import com.example.demo.service.admision.ControlAdmision;
+import com.example.demo.service.almacenamiento.AlmacenContenido;
+import com.example.demo.service.almacenamiento.CacheContenido;
+import com.example.demo.service.integridad.CuarentenaContenido;
+import com.example.demo.service.versiones.VersionService;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.EtagUtils;
+import com.example.demo.utils.HashUtils;
+import com.example.demo.utils.Mensajes;
+import com.example.demo.utils.TipoMime;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Arma las respuestas de descarga: valida con ETag (el hash del contenido más los metadatos que
+ * viajan en las cabeceras) y Last-Modified, admite {@code Range}/{@code If-Range} con un único
+ * rango, entrega comprimido lo que se guardó comprimido si el cliente lo acepta y envía el
+ * contenido por flujo. Si el contenido está en disco y Tomcat admite sendfile, el
+ * envío lo hace el propio conector sin pasar los bytes por la JVM; si no, el contenido más
+ * descargado puede salir de {@link CacheContenido}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DescargaService {
+
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final int LONGITUD_HUELLA_METADATOS = 16;
+
+    private final AlmacenContenido almacenContenido;
+    private final CacheContenido cacheContenido;
+    private final DescargaProperties descargaProperties;
+    private final ContenidoService contenidoService;
+    private final ControlAdmision controlAdmision;
+    private final MetricasArchivos metricasArchivos;
+    private final CuarentenaContenido cuarentenaContenido;
+    private final VersionService versionService;
+
+    public ResponseEntity<StreamingResponseBody> descargar(Archivo archivo, HttpServletRequest peticion) {
+        Codec codec = archivo.getCodec() != null ? archivo.getCodec() : Codec.NINGUNO;
+        // Lo guardado comprimido se envía tal cual si el cliente acepta esa codificación y no
+        // pide un rango; si no, se descomprime al vuelo
+        boolean codificado = codec != Codec.NINGUNO
+                && peticion.getHeader(HttpHeaders.RANGE) == null
+                && aceptaCodificacion(peticion.getHeader(HttpHeaders.ACCEPT_ENCODING), codec.getContentEncoding());
+        long tamano = codificado ? archivo.getTamanoAlmacenado() : archivo.getTamano();
+        long ultimaModificacion = ultimaModificacion(archivo);
+        String etag = etag(archivo.getHashContenido(), archivo.getId(), archivo.getNombreArchivo(),
+                archivo.getTipoArchivo(), codificado ? codec.getContentEncoding() : null);
+
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setETag(etag);
+        cabeceras.setLastModified(ultimaModificacion);
+        cabeceras.setCacheControl(descargaProperties.cacheControlPara(archivo.getTipoArchivo()));
+        if (codec != Codec.NINGUNO) {
+            cabeceras.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+        // Se resuelve solo con los metadatos, sin abrir el contenido
+        if (noModificado(peticion, etag, ultimaModificacion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(cabeceras).build();
+        }
+        if (cuarentenaContenido.contiene(archivo.getHashContenido())) {
+            throw new ArchivoNoEncontradoException(String.format(Mensajes.CONTENIDO_EN_CUARENTENA, archivo.getId()));
+        }
+
+        cabeceras.setContentDisposition(ContentDisposition.attachment()
+                .filename(archivo.getNombreArchivo(), StandardCharsets.UTF_8)
+                .build());
+        cabeceras.set(HttpHeaders.CONTENT_TYPE, archivo.getTipoArchivo());
+        cabeceras.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (codificado) {
+            cabeceras.set(HttpHeaders.CONTENT_ENCODING, codec.getContentEncoding());
+        }
+
+        HttpStatus estado = HttpStatus.OK;
+        long desde = 0;
+        long longitud = tamano;
+
+        String rango = peticion.getHeader(HttpHeaders.RANGE);
+        if (rango != null && aplicaRango(peticion.getHeader(HttpHeaders.IF_RANGE), etag, ultimaModificacion)) {
+            List<HttpRange> rangos = leerRangos(rango);
+            // Con varios rangos se responde el contenido completo, como permite la RFC 9110
+            if (rangos.size() == 1) {
+                try {
+                    desde = rangos.get(0).getRangeStart(tamano);
+                    longitud = rangos.get(0).getRangeEnd(tamano) - desde + 1;
+                } catch (IllegalArgumentException e) {
+                    longitud = 0;
+                }
+                if (desde >= tamano || longitud <= 0) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano)
+                            .build();
+                }
+                estado = HttpStatus.PARTIAL_CONTENT;
+                cabeceras.set(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + desde + "-" + (desde + longitud - 1) + "/" + tamano);
+            }
+        }
+        cabeceras.setContentLength(longitud);
+        // Se cuenta lo que se va a enviar: con sendfile los bytes no pasan por la JVM
+        metricasArchivos.descarga(archivo.getTipoArchivo(), longitud);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(estado).headers(cabeceras);
+        try {
+            if (codec != Codec.NINGUNO && !codificado) {
+                InputStream entrada = contenidoService.abrir(archivo.getHashContenido(), codec, desde);
+                return limitar(respuesta.body(copiar(entrada, longitud)), peticion);
+            }
+            return limitar(enviarAlmacenado(respuesta, archivo.getHashContenido(), tamano, desde, longitud, peticion), peticion);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            throw new ArchivoNoEncontradoException(String.format(Mensajes.CONTENIDO_NO_ENCONTRADO, archivo.getId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Envía una versión anterior juntando sus fragmentos según se escriben. Las versiones no
+     * cambian, así que basta el ETag para revalidar; no se admiten rangos.
+     */
+    public ResponseEntity<StreamingResponseBody> descargarVersion(VersionArchivo version, HttpServletRequest peticion) {
+        long ultimaModificacion = ultimaModificacion(version.getFechaSubida());
+        String etag = etag(version.getHashContenido(), version.getArchivoId(), version.getNombreArchivo(),
+                version.getTipoArchivo(), null);
+
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setETag(etag);
+        cabeceras.setLastModified(ultimaModificacion);
+        cabeceras.setCacheControl(descargaProperties.cacheControlPara(version.getTipoArchivo()));
+        if (noModificado(peticion, etag, ultimaModificacion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(cabeceras).build();
+        }
+        InputStream entrada = versionService.abrir(version);
+
+        cabeceras.setContentDisposition(ContentDisposition.attachment()
+                .filename(version.getNombreArchivo(), StandardCharsets.UTF_8)
+                .build());
+        cabeceras.set(HttpHeaders.CONTENT_TYPE, version.getTipoArchivo());
+        cabeceras.setContentLength(version.getTamano());
+        metricasArchivos.descarga(version.getTipoArchivo(), version.getTamano());
+        return limitar(ResponseEntity.ok().headers(cabeceras).body(copiar(entrada, version.getTamano())), peticion);
+    }
+
+    /**
+     * Envía varios archivos en un ZIP que se arma mientras se escribe: cada entrada se lee del
+     * almacén por bloques, así que la memoria no depende del tamaño ni del número de archivos.
+     * Si el cliente corta la conexión la escritura falla y se deja de leer del almacén.
+     */
+    public ResponseEntity<StreamingResponseBody> descargarZip(List<Archivo> archivos, HttpServletRequest peticion) {
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setContentDisposition(ContentDisposition.attachment()
+                .filename(ArchivoConstants.NOMBRE_ZIP)
+                .build());
+        cabeceras.setContentType(MediaType.parseMediaType("application/zip"));
+        return limitar(ResponseEntity.ok().headers(cabeceras).body(salida -> escribirZip(archivos, salida)), peticion);
+    }
+
+    private void escribirZip(List<Archivo> archivos, OutputStream salida) throws IOException {
+        Set<String> nombres = new HashSet<>();
+        // Sin try-with-resources: cerrarlo tras un fallo a mitad de entrada escribiría el índice y
+        // el ZIP truncado parecería bueno; así la respuesta se corta y el cliente ve el error
+        ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(salida), StandardCharsets.UTF_8);
+        for (Archivo archivo : archivos) {
+            if (cuarentenaContenido.contiene(archivo.getHashContenido())) {
+                log.warn("Se omite del ZIP el archivo {}: su contenido está en cuarentena", archivo.getId());
+                continue;
+            }
+            // Se abre y se lee el primer bloque antes de empezar la entrada: lo que falle aquí se omite
+            Codec codec = archivo.getCodec() != null ? archivo.getCodec() : Codec.NINGUNO;
+            InputStream datos;
+            byte[] inicio;
+            try {
+                datos = contenidoService.abrir(archivo.getHashContenido(), codec, 0);
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                log.warn("Se omite del ZIP el archivo {}: no se encontró su contenido", archivo.getId());
+                continue;
+            }
+            try {
+                inicio = datos.readNBytes((int) Math.min(TAMANO_BUFFER, archivo.getTamano()));
+            } catch (IOException e) {
+                datos.close();
+                log.warn("Se omite del ZIP el archivo {}: no se pudo leer su contenido", archivo.getId(), e);
+                continue;
+            }
+
+            try (datos) {
+                ZipEntry entrada = new ZipEntry(nombreEntrada(archivo, nombres));
+                entrada.setLastModifiedTime(FileTime.fromMillis(ultimaModificacion(archivo)));
+                // Comprimir JPEG, PNG u OOXML otra vez solo gasta CPU
+                zip.setLevel(TipoMime.desde(archivo.getTipoArchivo()).map(TipoMime::isComprimido).orElse(false)
+                        ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+                zip.putNextEntry(entrada);
+                zip.write(inicio);
+                long copiados = inicio.length + copiarAcotado(datos, zip, archivo.getTamano() - inicio.length);
+                if (copiados < archivo.getTamano()) {
+                    throw new EOFException("Contenido truncado: " + copiados + " de " + archivo.getTamano() + " bytes");
+                }
+                zip.closeEntry();
+                metricasArchivos.descarga(archivo.getTipoArchivo(), archivo.getTamano());
+            } catch (IOException e) {
+                log.error("Se interrumpe el ZIP en el archivo {}", archivo.getId(), e);
+                throw e;
+            }
+        }
+        zip.close();
+    }
+
+    // Nombres únicos y sin rutas: "informe.pdf", "informe (2).pdf"...
+    private String nombreEntrada(Archivo archivo, Set<String> usados) {
+        String nombre = archivo.getNombreArchivo() == null || archivo.getNombreArchivo().isBlank()
+                ? "archivo-" + archivo.getId()
+                : archivo.getNombreArchivo().replace('/', '_').replace('\\', '_');
+        int punto = nombre.lastIndexOf('.');
+        String base = punto > 0 ? nombre.substring(0, punto) : nombre;
+        String extension = punto > 0 ? nombre.substring(punto) : "";
+        String candidato = nombre;
+        for (int i = 2; !usados.add(candidato.toLowerCase()); i++) {
+            candidato = base + " (" + i + ")" + extension;
+        }
+        return candidato;
+    }
+
+    // Envía los bytes tal como están en el almacén
+    private ResponseEntity<StreamingResponseBody> enviarAlmacenado(ResponseEntity.BodyBuilder respuesta, String hash,
+                                                                   long tamano, long desde, long longitud,
+                                                                   HttpServletRequest peticion) throws IOException {
+        Optional<Path> rutaLocal = almacenContenido.rutaLocal(hash);
+        if (rutaLocal.isPresent()) {
+            Path ruta = rutaLocal.get();
+            // Con límite de ancho de banda no se usa sendfile: los bytes tienen que pasar por el limitador
+            if (Boolean.TRUE.equals(peticion.getAttribute(SENDFILE_SOPORTADO)) && !controlAdmision.limitaDescargas()
+                    && Files.isReadable(ruta)) {
+                peticion.setAttribute(SENDFILE_ARCHIVO, ruta.toString());
+                peticion.setAttribute(SENDFILE_INICIO, desde);
+                peticion.setAttribute(SENDFILE_FIN, desde + longitud);
+                return respuesta.build();
+            }
+            FileChannel canal = FileChannel.open(ruta);
+            return respuesta.body(transferir(canal, desde, longitud));
+        }
+        // Sin fichero local, el contenido más pedido se sirve desde la caché fuera del heap
+        Optional<ByteBuffer> enCache = cacheContenido.obtener(hash, tamano);
+        if (enCache.isPresent()) {
+            ByteBuffer datos = enCache.get().position((int) desde).limit((int) (desde + longitud));
+            return respuesta.body(escribir(datos));
+        }
+        InputStream entrada = almacenContenido.abrir(hash, desde);
+        return respuesta.body(copiar(entrada, longitud));
+    }
+
+    // Si hay límite de ancho de banda por cliente, el cuerpo se escribe a través de él
+    private ResponseEntity<StreamingResponseBody> limitar(ResponseEntity<StreamingResponseBody> respuesta,
+                                                          HttpServletRequest peticion) {
+        StreamingResponseBody cuerpo = respuesta.getBody();
+        if (cuerpo == null || !controlAdmision.limitaDescargas()) {
+            return respuesta;
+        }
+        String cliente = peticion.getRemoteAddr();
+        return ResponseEntity.status(respuesta.getStatusCode())
+                .headers(respuesta.getHeaders())
+                .body(salida -> cuerpo.writeTo(controlAdmision.limitarDescarga(cliente, salida)));
+    }
+
+    private StreamingResponseBody transferir(FileChannel canal, long desde, long longitud) {
+        return salida -> {
+            try (canal) {
+                WritableByteChannel destino = Channels.newChannel(salida);
+                long posicion = desde;
+                long fin = desde + longitud;
+                while (posicion < fin) {
+                    long enviados = canal.transferTo(posicion, fin - posicion, destino);
+                    if (enviados <= 0) {
+                        break;
+                    }
+                    posicion += enviados;
+                }
+            }
+        };
+    }
+
+    private StreamingResponseBody escribir(ByteBuffer datos) {
+        return salida -> {
+            WritableByteChannel destino = Channels.newChannel(salida);
+            while (datos.hasRemaining()) {
+                destino.write(datos);
+            }
+        };
+    }
+
+    private StreamingResponseBody copiar(InputStream entrada, long longitud) {
+        return salida -> {
+            try (entrada) {
+                copiarAcotado(entrada, salida, longitud);
+            }
+        };
+    }
+
+    static long copiarAcotado(InputStream entrada, OutputStream salida, long longitud) throws IOException {
+        byte[] buffer = new byte[TAMANO_BUFFER];
+        long pendientes = longitud;
+        int leidos;
+        while (pendientes > 0 && (leidos = entrada.read(buffer, 0, (int) Math.min(buffer.length, pendientes))) != -1) {
+            salida.write(buffer, 0, leidos);
+            pendientes -= leidos;
+        }
+        return longitud - pendientes;
+    }
+
+    private List<HttpRange> leerRangos(String rango) {
+        try {
+            return HttpRange.parseRanges(rango);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private boolean aceptaCodificacion(String acceptEncoding, String codificacion) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String parte : acceptEncoding.split(",")) {
+            String[] elementos = parte.split(";");
+            String nombre = elementos[0].trim();
+            if (!nombre.equalsIgnoreCase(codificacion) && !nombre.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < elementos.length; i++) {
+                String parametro = elementos[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parametro.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // El nombre y el tipo van en Content-Disposition y Content-Type: con los mismos bytes y otro
+    // nombre la respuesta ya no es la misma, así que también forman parte del ETag
+    private static String etag(String hash, Long id, String nombre, String tipo, String codificacion) {
+        String metadatos = HashUtils.sha256((id + "\n" + nombre + "\n" + tipo).getBytes(StandardCharsets.UTF_8));
+        return "\"" + hash + "-" + metadatos.substring(0, LONGITUD_HUELLA_METADATOS)
+                + (codificacion != null ? "-" + codificacion : "") + "\"";
+    }
+
+    // If-None-Match manda sobre If-Modified-Since (RFC 9110, 13.2.2)
+    private boolean noModificado(HttpServletRequest peticion, String etag, long ultimaModificacion) {
+        String ifNoneMatch = peticion.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return EtagUtils.coincide(ifNoneMatch, etag);
+        }
+        try {
+            long ifModifiedSince = peticion.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince != -1 && ultimaModificacion <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // If-Range: solo se sirve el rango si el archivo sigue siendo el mismo; con ETag la
+    // comparación es fuerte, así que un ETag débil nunca coincide
+    private boolean aplicaRango(String ifRange, String etag, long ultimaModificacion) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long fecha = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return fecha == ultimaModificacion;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private long ultimaModificacion(Archivo archivo) {
+        return ultimaModificacion(archivo.getFechaSubida());
+    }
+
+    private long ultimaModificacion(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault())
+                .toInstant()
+                .truncatedTo(ChronoUnit.SECONDS)
+                .toEpochMilli();
+    }
+}
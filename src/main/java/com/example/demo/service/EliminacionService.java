@@ -0,0 +1,252 @@
+package com.example.demo.service;
+
+import com.example.demo.config.EliminacionProperties;
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.dto.ResultadoEliminacion;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.evento.ArchivoEliminadoEvent;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.ArchivoSpecifications;
+import com.example.demo.service.almacenamiento.ContenidoLiberado;
+import com.example.demo.service.versiones.VersionService;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.Mensajes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Eliminación de muchos archivos a la vez: la pedida por la API (por ids o por filtros) y la de
+ * las políticas de retención por tipo. Se elimina por lotes de
+ * {@code archivos.eliminacion.tamano-lote}, cada uno en su transacción: las filas del lote se
+ * leen bloqueadas (solo metadatos, nunca el contenido) y se borran, se descuentan referencias y
+ * estadísticas con sentencias por conjuntos. Un fallo a mitad deja eliminados los lotes ya
+ * confirmados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EliminacionService {
+
+    private static final int HISTORIAL = 20;
+    private static final String ORIGEN_API = "api";
+    private static final String ORIGEN_RETENCION = "retencion ";
+
+    private final ArchivoRepository archivoRepository;
+    private final ArchivoService archivoService;
+    private final ContenidoService contenidoService;
+    private final EstadisticasService estadisticasService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final EliminacionProperties eliminacionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final VersionService versionService;
+
+    private final Deque<Progreso> historial = new ConcurrentLinkedDeque<>();
+    private final AtomicBoolean retencionEnCurso = new AtomicBoolean();
+
+    /**
+     * Elimina los archivos con esos ids (los que no existen se ignoran) y que además cumplan el
+     * filtro. Hace falta al menos una de las dos cosas: sin ninguna se eliminaría todo.
+     */
+    public ResultadoEliminacion eliminarVarios(List<Long> ids, FiltroArchivos filtro) {
+        boolean conIds = ids != null && !ids.isEmpty();
+        if (!conIds && FiltroArchivos.vacio().equals(filtro)) {
+            throw new ArchivoNoValidoException(Mensajes.ELIMINACION_SIN_CRITERIO);
+        }
+        // Un filtro incoherente no debe acabar en una eliminación por lotes
+        archivoService.validarFiltro(filtro);
+        Specification<Archivo> especificacion = ArchivoSpecifications.conFiltro(filtro);
+        Progreso progreso = iniciar(ORIGEN_API);
+        try {
+            if (!conIds) {
+                eliminarTodos(especificacion, progreso, Duration.ZERO);
+            }
+            int lote = eliminacionProperties.getTamanoLote();
+            for (int inicio = 0; conIds && inicio < ids.size(); inicio += lote) {
+                List<Long> grupo = ids.subList(inicio, Math.min(ids.size(), inicio + lote));
+                eliminarLote(especificacion.and(ArchivoSpecifications.conIds(grupo)), progreso);
+            }
+        } finally {
+            progreso.terminar();
+        }
+        return progreso.resultado();
+    }
+
+    /**
+     * Aplica las políticas de {@code archivos.eliminacion.retencion}: elimina, tipo por tipo,
+     * los archivos subidos antes de la antigüedad máxima de su tipo.
+     */
+    @Scheduled(cron = "${archivos.eliminacion.cron-retencion:0 0 4 * * *}")
+    public List<ResultadoEliminacion> aplicarRetencion() {
+        Map<String, Duration> politicas = new TreeMap<>(eliminacionProperties.retencionPorTipo());
+        if (politicas.isEmpty()) {
+            return List.of();
+        }
+        if (!retencionEnCurso.compareAndSet(false, true)) {
+            log.info("La retención ya está en curso; se omite esta pasada");
+            return List.of();
+        }
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<ResultadoEliminacion> resultados = new ArrayList<>();
+            for (Map.Entry<String, Duration> politica : politicas.entrySet()) {
+                FiltroArchivos filtro = new FiltroArchivos(politica.getKey(), null, null, null,
+                        ahora.minus(politica.getValue()), null);
+                Progreso progreso = iniciar(ORIGEN_RETENCION + politica.getKey());
+                try {
+                    eliminarTodos(ArchivoSpecifications.conFiltro(filtro), progreso, eliminacionProperties.getPausaEntreLotes());
+                } finally {
+                    progreso.terminar();
+                }
+                resultados.add(progreso.resultado());
+            }
+            return resultados;
+        } finally {
+            retencionEnCurso.set(false);
+        }
+    }
+
+    /**
+     * Las eliminaciones en curso y las últimas terminadas, de la más reciente a la más antigua.
+     */
+    public List<ResultadoEliminacion> estado() {
+        return historial.stream().map(Progreso::resultado).toList();
+    }
+
+    // Borra archivos ya bloqueados en la transacción y mantiene lo que depende de ellos:
+    // referencias y miniaturas del contenido, estadísticas, cachés y, con el evento de cada uno,
+    // el índice de nombres y la versión del catálogo
+    private ContenidoLiberado eliminar(List<Archivo> archivos) {
+        List<Long> ids = archivos.stream().map(Archivo::getId).toList();
+        archivoRepository.eliminarPorIds(ids);
+        ContenidoLiberado liberado = contenidoService.liberarVarios(
+                archivos.stream().map(Archivo::getHashContenido).toList())
+                .mas(versionService.eliminarDeArchivos(ids));
+        estadisticasService.registrarBajas(archivos);
+
+        // El gestor de cachés es transaccional: se desalojan tras el commit
+        Cache cacheArchivos = cacheManager.getCache(ArchivoConstants.CACHE_ARCHIVOS);
+        ids.forEach(cacheArchivos::evict);
+        cacheManager.getCache(ArchivoConstants.CACHE_ULTIMOS_ARCHIVOS).clear();
+        archivos.forEach(archivo -> eventPublisher.publishEvent(new ArchivoEliminadoEvent(archivo)));
+        return liberado;
+    }
+
+    private void eliminarTodos(Specification<Archivo> especificacion, Progreso progreso, Duration pausa) {
+        while (eliminarLote(especificacion, progreso) == eliminacionProperties.getTamanoLote()) {
+            if (!pausa.isZero() && !esperar(pausa)) {
+                return;
+            }
+        }
+    }
+
+    private int eliminarLote(Specification<Archivo> especificacion, Progreso progreso) {
+        Lote lote = transactionTemplate.execute(estado -> {
+            List<Archivo> archivos = bloquear(especificacion);
+            if (archivos.isEmpty()) {
+                return new Lote(0, 0, ContenidoLiberado.NADA);
+            }
+            long bytes = archivos.stream().mapToLong(Archivo::getTamano).sum();
+            return new Lote(archivos.size(), bytes, eliminar(archivos));
+        });
+        if (lote.archivos() > 0) {
+            progreso.sumar(lote);
+            log.debug("Eliminación {}: lote de {} archivos", progreso.origen, lote.archivos());
+        }
+        return lote.archivos();
+    }
+
+    // En orden de fecha e id, que con filtro por tipo y fecha es el del índice idx_archivos_tipo_fecha:
+    // cada lote lee solo las filas que va a borrar
+    private List<Archivo> bloquear(Specification<Archivo> especificacion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Archivo> consulta = cb.createQuery(Archivo.class);
+        Root<Archivo> archivo = consulta.from(Archivo.class);
+        consulta.where(especificacion.toPredicate(archivo, consulta, cb))
+                .orderBy(cb.asc(archivo.get("fechaSubida")), cb.asc(archivo.get("id")));
+        return entityManager.createQuery(consulta)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(eliminacionProperties.getTamanoLote())
+                .getResultList();
+    }
+
+    private Progreso iniciar(String origen) {
+        Progreso progreso = new Progreso(origen);
+        historial.addFirst(progreso);
+        while (historial.size() > HISTORIAL) {
+            historial.pollLast();
+        }
+        return progreso;
+    }
+
+    private static boolean esperar(Duration pausa) {
+        try {
+            Thread.sleep(pausa.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Lote(int archivos, long bytesArchivos, ContenidoLiberado liberado) {
+    }
+
+    private static final class Progreso {
+
+        private final String origen;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private LocalDateTime fin;
+        private int lotes;
+        private long archivos;
+        private long bytesArchivos;
+        private long contenidosLiberados;
+        private long bytesLiberados;
+
+        private Progreso(String origen) {
+            this.origen = origen;
+        }
+
+        synchronized void sumar(Lote lote) {
+            lotes++;
+            archivos += lote.archivos();
+            bytesArchivos += lote.bytesArchivos();
+            contenidosLiberados += lote.liberado().contenidos();
+            bytesLiberados += lote.liberado().bytes();
+        }
+
+        synchronized void terminar() {
+            fin = LocalDateTime.now();
+            log.info("Eliminación {}: {} archivos en {} lotes, {} bytes liberados", origen, archivos, lotes, bytesLiberados);
+        }
+
+        synchronized ResultadoEliminacion resultado() {
+            return new ResultadoEliminacion(origen, inicio, fin, lotes, archivos, bytesArchivos,
+                    contenidosLiberados, bytesLiberados);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TotalTipo;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.EstadisticaDiaria;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.EstadisticaDiariaRepository;
+import com.example.demo.utils.Mensajes;
+import com.example.demo.utils.TipoMime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contadores de archivos y bytes por tipo y día. Se actualizan en la misma transacción que
+ * el alta, el cambio o la baja del archivo; la reconstrucción periódica corrige cualquier
+ * desviación recalculándolos desde {@code archivos}.
+ */
+@Slf4j
+@Order(4)
+@Service
+@RequiredArgsConstructor
+public class EstadisticasService implements ApplicationRunner {
+
+    private final EstadisticaDiariaRepository estadisticaDiariaRepository;
+    private final ArchivoRepository archivoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // La primera vez (tabla vacía con archivos ya guardados) se calculan desde cero. Llamado
+    // desde aquí @Transactional no se aplica, de ahí la transacción explícita
+    @Override
+    public void run(ApplicationArguments args) {
+        if (estadisticaDiariaRepository.count() == 0 && archivoRepository.count() > 0) {
+            transactionTemplate.executeWithoutResult(estado -> reconstruir());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAltas(Collection<Archivo> archivos) {
+        Map<Clave, long[]> cambios = new TreeMap<>();
+        for (Archivo archivo : archivos) {
+            acumular(cambios, archivo.getTipoArchivo(), archivo.getFechaSubida(), 1, archivo.getTamano());
+        }
+        aplicar(cambios);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarBaja(Archivo archivo) {
+        registrarBajas(List.of(archivo));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarBajas(Collection<Archivo> archivos) {
+        Map<Clave, long[]> cambios = new TreeMap<>();
+        for (Archivo archivo : archivos) {
+            acumular(cambios, archivo.getTipoArchivo(), archivo.getFechaSubida(), -1, -archivo.getTamano());
+        }
+        aplicar(cambios);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambio(String tipoAnterior, LocalDateTime fechaAnterior, long tamanoAnterior, Archivo actual) {
+        Map<Clave, long[]> cambios = new TreeMap<>();
+        acumular(cambios, tipoAnterior, fechaAnterior, -1, -tamanoAnterior);
+        acumular(cambios, actual.getTipoArchivo(), actual.getFechaSubida(), 1, actual.getTamano());
+        aplicar(cambios);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EstadisticaDiaria> porDia(String tipo, LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new ArchivoNoValidoException(Mensajes.FECHAS_NULAS);
+        }
+        if (hasta.isBefore(desde)) {
+            throw new ArchivoNoValidoException(Mensajes.FIN_ANTES_INICIO);
+        }
+        return tipo == null || tipo.isBlank()
+                ? estadisticaDiariaRepository.findByFechaBetweenOrderByFechaAscTipoArchivoAsc(desde, hasta)
+                : estadisticaDiariaRepository.findByTipoArchivoAndFechaBetweenOrderByFechaAsc(TipoMime.normalizar(tipo), desde, hasta);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TotalTipo> porTipo() {
+        return estadisticaDiariaRepository.totalesPorTipo();
+    }
+
+    @Transactional
+    @Scheduled(cron = "${archivos.estadisticas.cron-reconstruccion:0 30 3 * * *}")
+    public int reconstruir() {
+        estadisticaDiariaRepository.vaciar();
+        int filas = estadisticaDiariaRepository.reconstruir();
+        log.info("Estadísticas reconstruidas: {} combinaciones de tipo y día", filas);
+        return filas;
+    }
+
+    private void acumular(Map<Clave, long[]> cambios, String tipo, LocalDateTime fecha, long archivos, long bytes) {
+        long[] cambio = cambios.computeIfAbsent(new Clave(tipo, fecha.toLocalDate()), clave -> new long[2]);
+        cambio[0] += archivos;
+        cambio[1] += bytes;
+    }
+
+    // Siempre en el mismo orden de clave: dos transacciones que tocan las mismas filas las
+    // bloquean en el mismo orden y no se interbloquean
+    private void aplicar(Map<Clave, long[]> cambios) {
+        cambios.forEach((clave, cambio) -> {
+            if (cambio[0] == 0 && cambio[1] == 0) {
+                return;
+            }
+            estadisticaDiariaRepository.sumar(clave.tipo(), clave.fecha(), cambio[0], cambio[1]);
+            if (cambio[0] < 0) {
+                estadisticaDiariaRepository.eliminarSiVacia(clave.tipo(), clave.fecha());
+            }
+        });
+    }
+
+    private record Clave(String tipo, LocalDate fecha) implements Comparable<Clave> {
+
+        private static final Comparator<Clave> ORDEN = Comparator.comparing(Clave::tipo).thenComparing(Clave::fecha);
+
+        @Override
+        public int compareTo(Clave otra) {
+            return ORDEN.compare(this, otra);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ArchivoResumen;
+import com.example.demo.dto.FormatoExportacion;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.utils.ArchivoConstants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta los metadatos de todo el catálogo en NDJSON o CSV. Las filas se leen con un cursor
+ * y se escriben según llegan, así que la memoria no depende del tamaño del catálogo y la
+ * respuesta empieza a salir con la primera fila.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacionService {
+
+    private static final String CABECERA_CSV = "id,nombreArchivo,tipoArchivo,tamano,hashContenido,descripcion,fechaSubida";
+
+    private final ArchivoRepository archivoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ResponseEntity<StreamingResponseBody> exportar(FormatoExportacion formato) {
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setContentDisposition(ContentDisposition.attachment()
+                .filename(ArchivoConstants.NOMBRE_EXPORTACION + "." + formato.getExtension())
+                .build());
+        cabeceras.set(HttpHeaders.CONTENT_TYPE, formato.getTipoContenido());
+        return ResponseEntity.ok().headers(cabeceras).body(salida -> exportar(formato, salida));
+    }
+
+    // Se ejecuta en el hilo que escribe la respuesta, fuera de la transacción de la petición.
+    // De solo lectura: con réplicas configuradas, el recorrido no carga a la primaria
+    private void exportar(FormatoExportacion formato, OutputStream salida) {
+        TransactionTemplate lectura = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        lectura.setReadOnly(true);
+        lectura.execute(estado -> {
+            try (Stream<ArchivoResumen> filas = archivoRepository.streamResumenes()) {
+                if (formato == FormatoExportacion.CSV) {
+                    escribirCsv(filas.iterator(), salida);
+                } else {
+                    escribirNdjson(filas.iterator(), salida);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    private void escribirNdjson(Iterator<ArchivoResumen> filas, OutputStream salida) throws IOException {
+        // Cada fila en su línea y sin vaciar tras cada una:
+        // el generador y el conector agrupan las escrituras
+        ObjectWriter escritor = objectMapper.writerFor(ArchivoResumen.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(salida))) {
+            generador.setRootValueSeparator(null);
+            while (filas.hasNext()) {
+                escritor.writeValue(generador, filas.next());
+                generador.writeRaw('\n');
+            }
+        }
+    }
+
+    private void escribirCsv(Iterator<ArchivoResumen> filas, OutputStream salida) throws IOException {
+        try (Writer escritor = new BufferedWriter(new OutputStreamWriter(StreamUtils.nonClosing(salida), StandardCharsets.UTF_8))) {
+            escritor.write(CABECERA_CSV);
+            escritor.write("\r\n");
+            while (filas.hasNext()) {
+                ArchivoResumen fila = filas.next();
+                escritor.write(String.valueOf(fila.id()));
+                escritor.write(',');
+                escritor.write(campoCsv(fila.nombreArchivo()));
+                escritor.write(',');
+                escritor.write(campoCsv(fila.tipoArchivo()));
+                escritor.write(',');
+                escritor.write(String.valueOf(fila.tamano()));
+                escritor.write(',');
+                escritor.write(campoCsv(fila.hashContenido()));
+                escritor.write(',');
+                escritor.write(campoCsv(fila.descripcion()));
+                escritor.write(',');
+                escritor.write(fila.fechaSubida() != null ? fila.fechaSubida().toString() : "");
+                escritor.write("\r\n");
+            }
+        }
+    }
+
+    // RFC 4180: entre comillas si lleva separadores, comillas o saltos de línea
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas propias de los archivos: bytes subidos y descargados por tipo MIME, rechazos de
+ * validación por motivo y distribución del tamaño del contenido nuevo. Los contadores se
+ * registran una vez por etiqueta y se reutilizan, así que anotar cuesta un incremento.
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricasArchivos {
+
+    public static final String MOTIVO_VACIO = "vacio";
+    public static final String MOTIVO_TAMANO = "tamano";
+    public static final String MOTIVO_TIPO = "tipo";
+    public static final String MOTIVO_DESCRIPCION = "descripcion";
+
+    private static final String SIN_TIPO = "desconocido";
+    private static final double TAMANO_MINIMO_ESPERADO = DataSize.ofKilobytes(1).toBytes();
+    private static final double TAMANO_MAXIMO_ESPERADO = DataSize.ofGigabytes(2).toBytes();
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Counter> bytesSubidos = new ConcurrentHashMap<>();
+    private final Map<String, Counter> bytesDescargados = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rechazos = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> tamanosContenido = new ConcurrentHashMap<>();
+
+    public void subida(String tipoMime, long bytes) {
+        bytesSubidos.computeIfAbsent(tipo(tipoMime), tipo -> Counter.builder("archivos.subida.bytes")
+                        .description("Bytes recibidos en subidas")
+                        .baseUnit("bytes")
+                        .tag("tipo", tipo)
+                        .register(registry))
+                .increment(bytes);
+    }
+
+    public void descarga(String tipoMime, long bytes) {
+        bytesDescargados.computeIfAbsent(tipo(tipoMime), tipo -> Counter.builder("archivos.descarga.bytes")
+                        .description("Bytes enviados en descargas")
+                        .baseUnit("bytes")
+                        .tag("tipo", tipo)
+                        .register(registry))
+                .increment(bytes);
+    }
+
+    public void rechazo(String motivo) {
+        rechazos.computeIfAbsent(motivo, clave -> Counter.builder("archivos.subida.rechazos")
+                        .description("Subidas rechazadas por la validación")
+                        .tag("motivo", clave)
+                        .register(registry))
+                .increment();
+    }
+
+    // Solo el contenido que se guarda por primera vez; los duplicados no ocupan espacio nuevo
+    public void contenidoNuevo(String tipoMime, long tamano) {
+        tamanosContenido.computeIfAbsent(tipo(tipoMime), tipo -> DistributionSummary.builder("archivos.contenido.tamano")
+                        .description("Tamaño del contenido nuevo guardado")
+                        .baseUnit("bytes")
+                        .tag("tipo", tipo)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(TAMANO_MINIMO_ESPERADO)
+                        .maximumExpectedValue(TAMANO_MAXIMO_ESPERADO)
+                        .register(registry))
+                .record(tamano);
+    }
+
+    private static String tipo(String tipoMime) {
+        return tipoMime != null ? tipoMime : SIN_TIPO;
+    }
+}
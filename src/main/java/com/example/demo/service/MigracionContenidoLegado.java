@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AlmacenamientoProperties;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Al arrancar, copia por lotes el contenido de la antigua columna {@code archivos.archivo} a
+ * la tabla {@code archivos_contenido} y registra en {@code contenidos}
+ * las referencias de los archivos guardados antes del conteo de referencias. El contenido
+ * anterior a la compresión queda marcado como guardado sin codec.
+ * <p>
+ * La columna antigua solo deja de ser obligatoria, para que los archivos nuevos se guarden sin
+ * ella; sus datos se conservan salvo que se pida eliminarla con
+ * {@code archivos.almacen.eliminar-columna-legada}.
+ */
+@Slf4j
+@Order(1)
+@Component
+@RequiredArgsConstructor
+public class MigracionContenidoLegado implements ApplicationRunner {
+
+    private static final int TAMANO_LOTE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContenidoRepository contenidoRepository;
+    private final ArchivoRepository archivoRepository;
+    private final AlmacenamientoProperties almacenamientoProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (existeColumnaLegada()) {
+            migrarColumnaLegada();
+        }
+
+        Integer completados = transactionTemplate.execute(estado -> contenidoRepository.completarReferencias(LocalDateTime.now()));
+        if (completados != null && completados > 0) {
+            log.info("Registradas las referencias de {} contenidos existentes", completados);
+        }
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            archivoRepository.completarCodec();
+            contenidoRepository.completarCodec();
+        });
+    }
+
+    private void migrarColumnaLegada() {
+        int migrados = 0;
+        List<Map<String, Object>> lote;
+        while (!(lote = jdbcTemplate.queryForList(
+                "select codigo, archivo from archivos where hash_contenido is null limit ?", TAMANO_LOTE)).isEmpty()) {
+            for (Map<String, Object> fila : lote) {
+                byte[] datos = (byte[]) fila.get("archivo");
+                String hash = HashUtils.sha256(datos);
+                Integer existentes = jdbcTemplate.queryForObject(
+                        "select count(*) from archivos_contenido where hash = ?", Integer.class, hash);
+                if (existentes == null || existentes == 0) {
+                    jdbcTemplate.update("insert into archivos_contenido (hash, datos) values (?, ?)", hash, datos);
+                }
+                jdbcTemplate.update("update archivos set hash_contenido = ? where codigo = ?", hash, fila.get("codigo"));
+            }
+            migrados += lote.size();
+        }
+
+        log.info("Migrados {} archivos a la tabla archivos_contenido", migrados);
+        if (almacenamientoProperties.isEliminarColumnaLegada()) {
+            jdbcTemplate.execute("alter table archivos drop column archivo");
+            log.info("Eliminada la columna archivos.archivo");
+        } else {
+            jdbcTemplate.execute("alter table archivos modify column archivo longblob null");
+        }
+    }
+
+    private boolean existeColumnaLegada() {
+        Boolean existe = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion -> {
+            DatabaseMetaData metaData = conexion.getMetaData();
+            try (ResultSet columnas = metaData.getColumns(conexion.getCatalog(), null, "archivos", "archivo")) {
+                return columnas.next();
+            }
+        });
+        return Boolean.TRUE.equals(existe);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.entidad.Archivo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * MySQL no tiene secuencias: Hibernate las emula con la tabla {@code archivos_seq}, que al
+ * crearse empieza en 1 aunque la tabla {@code archivos} ya tenga filas con ids de
+ * AUTO_INCREMENT. Antes de que arranque el servidor se adelanta para que el primer bloque
+ * reservado empiece después del mayor id existente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SincronizacionSecuenciaArchivos implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!existeTablaSecuencia()) {
+            return;
+        }
+        Long maximo = jdbcTemplate.queryForObject("select coalesce(max(codigo), 0) from archivos", Long.class);
+        if (maximo == null || maximo == 0) {
+            return;
+        }
+        // Hibernate reserva el bloque (valor - 49, valor], así que el valor debe ser máximo + 50
+        long siguiente = maximo + Archivo.ASIGNACION_IDS;
+        int actualizadas = jdbcTemplate.update(
+                "update " + Archivo.SECUENCIA + " set next_val = ? where next_val < ?", siguiente, siguiente);
+        if (actualizadas > 0) {
+            log.info("Secuencia {} adelantada a {}", Archivo.SECUENCIA, siguiente);
+        }
+    }
+
+    private boolean existeTablaSecuencia() {
+        Boolean existe = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion -> {
+            DatabaseMetaData metaData = conexion.getMetaData();
+            try (ResultSet columnas = metaData.getColumns(conexion.getCatalog(), null, Archivo.SECUENCIA, "next_val")) {
+                return columnas.next();
+            }
+        });
+        return Boolean.TRUE.equals(existe);
+    }
+}
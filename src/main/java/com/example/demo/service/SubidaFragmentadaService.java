@@ -0,0 +1,280 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SubidaProperties;
+import com.example.demo.dto.EstadoSesionSubida;
+import com.example.demo.dto.RangoRecibido;
+import com.example.demo.dto.SolicitudSesionSubida;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.FragmentoSubida;
+import com.example.demo.entidad.SesionSubida;
+import com.example.demo.exception.ArchivoNoEncontradoException;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.exception.FragmentoEnConflictoException;
+import com.example.demo.repository.FragmentoSubidaRepository;
+import com.example.demo.repository.SesionSubidaRepository;
+import com.example.demo.utils.HashUtils;
+import com.example.demo.utils.Mensajes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Subidas reanudables: cada sesión reserva un fichero temporal y los fragmentos se escriben
+ * en su posición con escrituras posicionales, así que pueden llegar en cualquier orden y en
+ * paralelo. Al finalizar, el fichero ensamblado entra por el mismo camino que una subida normal.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubidaFragmentadaService {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final SesionSubidaRepository sesionSubidaRepository;
+    private final FragmentoSubidaRepository fragmentoSubidaRepository;
+    private final ArchivoService archivoService;
+    private final SubidaProperties properties;
+
+    public EstadoSesionSubida crearSesion(SolicitudSesionSubida solicitud) {
+        // Se comprueba todo lo que exige el archivo antes de aceptar ningún byte
+        archivoService.validarDescripcion(solicitud.descripcion());
+        String tipoArchivo = archivoService.validarTipo(solicitud.tipoArchivo()).getMime();
+        long tamanoMaximo = properties.getTamanoMaximo().toBytes();
+        if (solicitud.tamano() > tamanoMaximo) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.ARCHIVO_EXCEDE_TAMANO,
+                    solicitud.nombreArchivo(), tamanoMaximo / (1024 * 1024)));
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        SesionSubida sesion = sesionSubidaRepository.save(SesionSubida.builder()
+                .id(UUID.randomUUID().toString())
+                .nombreArchivo(solicitud.nombreArchivo())
+                .tipoArchivo(tipoArchivo)
+                .descripcion(solicitud.descripcion())
+                .tamanoTotal(solicitud.tamano())
+                .fechaCreacion(ahora)
+                .fechaExpiracion(ahora.plus(properties.getExpiracion()))
+                .build());
+        return estado(sesion, List.of());
+    }
+
+    public EstadoSesionSubida obtenerEstado(String id) {
+        SesionSubida sesion = obtenerSesion(id);
+        return estado(sesion, fragmentoSubidaRepository.findBySesionIdOrderByDesdeAsc(id));
+    }
+
+    // Sin transacción: la conexión a la base de datos no se retiene mientras llegan los bytes
+    public EstadoSesionSubida recibirFragmento(String id, long desde, InputStream datos, String checksum) throws IOException {
+        SesionSubida sesion = obtenerSesion(id);
+        if (desde < 0 || desde >= sesion.getTamanoTotal()) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.FRAGMENTO_FUERA_DE_RANGO, desde, sesion.getTamanoTotal()));
+        }
+        long maximo = Math.min(properties.getTamanoMaximoFragmento().toBytes(), sesion.getTamanoTotal() - desde);
+
+        // Un fragmento ya recibido no se vuelve a escribir: sus bytes están verificados y otro
+        // contenido los estropearía. Si el reenvío es idéntico se acepta como reintento
+        Optional<FragmentoSubida> recibido = fragmentoSubidaRepository.findBySesionIdAndDesde(id, desde);
+        if (recibido.isPresent()) {
+            Leido leido = leer(datos, null, desde, maximo);
+            comprobarChecksum(checksum, leido.hash());
+            if (!recibido.get().getHash().equals(leido.hash()) || recibido.get().getLongitud() != leido.longitud()) {
+                throw new FragmentoEnConflictoException(String.format(Mensajes.FRAGMENTO_YA_RECIBIDO, desde));
+            }
+            return renovar(sesion);
+        }
+
+        Files.createDirectories(properties.getDirectorio());
+        Leido leido;
+        try (FileChannel canal = FileChannel.open(ruta(id), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            leido = leer(datos, canal, desde, maximo);
+        }
+        String hash = leido.hash();
+        long escritos = leido.longitud();
+        comprobarChecksum(checksum, hash);
+
+        try {
+            fragmentoSubidaRepository.save(FragmentoSubida.builder()
+                    .sesionId(id)
+                    .desde(desde)
+                    .longitud(escritos)
+                    .hash(hash)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Otro envío del mismo fragmento terminó antes: si era idéntico, este es un reintento
+            FragmentoSubida existente = fragmentoSubidaRepository.findBySesionIdAndDesde(id, desde).orElseThrow(() -> e);
+            if (!existente.getHash().equals(hash) || existente.getLongitud() != escritos) {
+                // Los dos se escribieron sobre los mismos bytes: ninguno se puede dar por recibido
+                fragmentoSubidaRepository.eliminar(id, desde);
+                throw new FragmentoEnConflictoException(String.format(Mensajes.FRAGMENTO_EN_CONFLICTO, desde));
+            }
+        }
+        return renovar(sesion);
+    }
+
+    @Transactional
+    public Archivo finalizar(String id, String hashEsperado) throws IOException {
+        SesionSubida sesion = obtenerSesion(id);
+        List<RangoRecibido> recibidos = fusionar(fragmentoSubidaRepository.findBySesionIdOrderByDesdeAsc(id));
+        long bytesRecibidos = recibidos.stream().mapToLong(r -> r.hasta() - r.desde()).sum();
+        if (bytesRecibidos != sesion.getTamanoTotal() || recibidos.size() != 1) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.SUBIDA_INCOMPLETA, bytesRecibidos, sesion.getTamanoTotal()));
+        }
+
+        // El hash esperado se comprueba sobre el fichero ensamblado, antes de guardar nada
+        if (hashEsperado != null) {
+            String calculado = hashFichero(ruta(id));
+            if (!hashEsperado.equalsIgnoreCase(calculado)) {
+                throw new ArchivoNoValidoException(String.format(Mensajes.SUBIDA_CHECKSUM_INVALIDO, hashEsperado, calculado));
+            }
+        }
+
+        Archivo archivo = archivoService.guardarArchivo(sesion.getNombreArchivo(), sesion.getTipoArchivo(),
+                sesion.getDescripcion(), new FileSystemResource(ruta(id)), sesion.getTamanoTotal());
+        // Un fragmento reenviado entretanto pudo cambiar el fichero: se deshace y se borra lo escrito
+        if (hashEsperado != null && !hashEsperado.equalsIgnoreCase(archivo.getHashContenido())) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.SUBIDA_CHECKSUM_INVALIDO, hashEsperado, archivo.getHashContenido()));
+        }
+
+        eliminarSesion(sesion);
+        return archivo;
+    }
+
+    @Transactional
+    public void cancelar(String id) {
+        eliminarSesion(obtenerSesion(id));
+    }
+
+    @Scheduled(fixedDelayString = "${archivos.subida.intervalo-limpieza:PT15M}")
+    @Transactional
+    public void limpiarSesionesExpiradas() {
+        List<SesionSubida> expiradas = sesionSubidaRepository.findByFechaExpiracionBefore(LocalDateTime.now());
+        expiradas.forEach(this::eliminarSesion);
+        if (!expiradas.isEmpty()) {
+            log.info("Eliminadas {} sesiones de subida expiradas", expiradas.size());
+        }
+    }
+
+    private void eliminarSesion(SesionSubida sesion) {
+        fragmentoSubidaRepository.eliminarPorSesion(sesion.getId());
+        sesionSubidaRepository.delete(sesion);
+
+        Path ruta = ruta(sesion.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    Files.deleteIfExists(ruta);
+                } catch (IOException e) {
+                    log.warn("No se pudo eliminar el fichero temporal {}", ruta, e);
+                }
+            }
+        });
+    }
+
+    // Lee el fragmento entero calculando su hash y, si hay canal, lo escribe en su posición
+    private Leido leer(InputStream datos, FileChannel canal, long desde, long maximo) throws IOException {
+        MessageDigest digest = HashUtils.nuevoDigest();
+        long leidosTotal = 0;
+        byte[] buffer = new byte[TAMANO_BUFFER];
+        ByteBuffer envoltorio = ByteBuffer.wrap(buffer);
+        int leidos;
+        while ((leidos = datos.read(buffer)) != -1) {
+            if (leidosTotal + leidos > maximo) {
+                throw new ArchivoNoValidoException(String.format(Mensajes.FRAGMENTO_EXCEDE_TAMANO, maximo));
+            }
+            digest.update(buffer, 0, leidos);
+            if (canal != null) {
+                envoltorio.clear().limit(leidos);
+                while (envoltorio.hasRemaining()) {
+                    canal.write(envoltorio, desde + leidosTotal + envoltorio.position());
+                }
+            }
+            leidosTotal += leidos;
+        }
+        if (leidosTotal == 0) {
+            throw new ArchivoNoValidoException(Mensajes.FRAGMENTO_VACIO);
+        }
+        return new Leido(HexFormat.of().formatHex(digest.digest()), leidosTotal);
+    }
+
+    private void comprobarChecksum(String checksum, String hash) {
+        if (checksum != null && !checksum.equalsIgnoreCase(hash)) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.FRAGMENTO_CHECKSUM_INVALIDO, checksum, hash));
+        }
+    }
+
+    private EstadoSesionSubida renovar(SesionSubida sesion) {
+        sesion.setFechaExpiracion(LocalDateTime.now().plus(properties.getExpiracion()));
+        sesionSubidaRepository.save(sesion);
+        return estado(sesion, fragmentoSubidaRepository.findBySesionIdOrderByDesdeAsc(sesion.getId()));
+    }
+
+    private String hashFichero(Path ruta) throws IOException {
+        MessageDigest digest = HashUtils.nuevoDigest();
+        try (InputStream entrada = Files.newInputStream(ruta)) {
+            byte[] buffer = new byte[TAMANO_BUFFER];
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                digest.update(buffer, 0, leidos);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private SesionSubida obtenerSesion(String id) {
+        return sesionSubidaRepository.findById(id)
+                .filter(sesion -> sesion.getFechaExpiracion().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new ArchivoNoEncontradoException(String.format(Mensajes.SESION_SUBIDA_NO_ENCONTRADA, id)));
+    }
+
+    private EstadoSesionSubida estado(SesionSubida sesion, List<FragmentoSubida> fragmentos) {
+        List<RangoRecibido> recibidos = fusionar(fragmentos);
+        long bytesRecibidos = recibidos.stream().mapToLong(r -> r.hasta() - r.desde()).sum();
+        return new EstadoSesionSubida(sesion.getId(), sesion.getNombreArchivo(), sesion.getTamanoTotal(),
+                bytesRecibidos, recibidos, sesion.getFechaExpiracion());
+    }
+
+    // Une fragmentos contiguos o solapados (vienen ordenados por posición)
+    private List<RangoRecibido> fusionar(List<FragmentoSubida> fragmentos) {
+        List<RangoRecibido> rangos = new ArrayList<>();
+        for (FragmentoSubida fragmento : fragmentos) {
+            long desde = fragmento.getDesde();
+            long hasta = desde + fragmento.getLongitud();
+            int ultimo = rangos.size() - 1;
+            if (ultimo >= 0 && desde <= rangos.get(ultimo).hasta()) {
+                rangos.set(ultimo, new RangoRecibido(rangos.get(ultimo).desde(), Math.max(hasta, rangos.get(ultimo).hasta())));
+            } else {
+                rangos.add(new RangoRecibido(desde, hasta));
+            }
+        }
+        return rangos;
+    }
+
+    private Path ruta(String id) {
+        return properties.getDirectorio().resolve(id + ".part");
+    }
+
+    private record Leido(String hash, long longitud) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.example.demo.evento.ArchivoEliminadoEvent;
+import com.example.demo.evento.ArchivoGuardadoEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión del catálogo de archivos: cambia con cada alta, modificación o baja confirmada.
+ * Incluye el instante de arranque para que las versiones no se repitan tras reiniciar.
+ */
+@Component
+public class VersionCatalogo {
+
+    private final long arranque = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public String actual() {
+        return Long.toString(arranque, 36) + "-" + version.get();
+    }
+
+    public void incrementar() {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alGuardar(ArchivoGuardadoEvent evento) {
+        incrementar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alEliminar(ArchivoEliminadoEvent evento) {
+        incrementar();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service.admision;
+
+import com.example.demo.config.AdmisionProperties;
+import com.example.demo.dto.EstadoAdmision;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita cuántas subidas se procesan a la vez y cuántos bytes suman entre todas. Una subida
+ * que no cabe espera su turno hasta {@code espera-maxima}; si no llega se rechaza. También
+ * reparte el ancho de banda de descarga por cliente cuando está configurado.
+ */
+@Component
+public class ControlAdmision {
+
+    private static final int BYTES_POR_UNIDAD = 1024;
+    private static final Duration EXPIRACION_LIMITADORES = Duration.ofMinutes(10);
+
+    private final AdmisionProperties admisionProperties;
+    private final Semaphore concurrencia;
+    // En KiB para que presupuestos de varios GB quepan en los permisos (int) del semáforo
+    private final Semaphore presupuesto;
+    private final int unidadesPresupuesto;
+    private final Cache<String, LimitadorTasa> limitadores = Caffeine.newBuilder()
+            .expireAfterAccess(EXPIRACION_LIMITADORES)
+            .build();
+
+    private final AtomicLong admitidas = new AtomicLong();
+    private final AtomicLong encoladas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+
+    public ControlAdmision(AdmisionProperties admisionProperties) {
+        this.admisionProperties = admisionProperties;
+        this.unidadesPresupuesto = Math.toIntExact(Math.max(1, admisionProperties.getPresupuesto().toBytes() / BYTES_POR_UNIDAD));
+        // Justos: las subidas grandes no se quedan esperando detrás de las pequeñas que llegan después
+        this.concurrencia = new Semaphore(admisionProperties.getSubidasConcurrentes(), true);
+        this.presupuesto = new Semaphore(unidadesPresupuesto, true);
+    }
+
+    public boolean isHabilitada() {
+        return admisionProperties.isHabilitada();
+    }
+
+    /**
+     * Reserva sitio para una subida de {@code bytes} (una subida mayor que todo el presupuesto
+     * lo ocupa entero). Devuelve vacío si no hubo sitio dentro de la espera máxima; el permiso
+     * hay que cerrarlo al terminar.
+     */
+    public Optional<Permiso> admitir(long bytes) throws InterruptedException {
+        int unidades = (int) Math.min(unidadesPresupuesto, Math.max(1, (bytes + BYTES_POR_UNIDAD - 1) / BYTES_POR_UNIDAD));
+        long limite = System.nanoTime() + admisionProperties.getEsperaMaxima().toNanos();
+
+        boolean esperando = false;
+        if (!concurrencia.tryAcquire()) {
+            esperando = true;
+            encoladas.incrementAndGet();
+            if (!concurrencia.tryAcquire(limite - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                rechazadas.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+        if (!presupuesto.tryAcquire(unidades)) {
+            if (!esperando) {
+                encoladas.incrementAndGet();
+            }
+            if (!presupuesto.tryAcquire(unidades, limite - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                concurrencia.release();
+                rechazadas.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+        admitidas.incrementAndGet();
+        return Optional.of(new Permiso(unidades));
+    }
+
+    public long segundosParaReintentar() {
+        return Math.max(1, admisionProperties.getReintentarEn().toSeconds());
+    }
+
+    public boolean limitaDescargas() {
+        return admisionProperties.getDescargaPorCliente().toBytes() > 0;
+    }
+
+    /**
+     * Envuelve la salida de una descarga para que el cliente no supere su ancho de banda; el
+     * límite es por cliente, así que lo reparten sus descargas simultáneas.
+     */
+    public OutputStream limitarDescarga(String cliente, OutputStream salida) {
+        if (!limitaDescargas()) {
+            return salida;
+        }
+        long tasa = admisionProperties.getDescargaPorCliente().toBytes();
+        return new SalidaLimitada(salida, limitadores.get(cliente, clave -> new LimitadorTasa(tasa)));
+    }
+
+    public EstadoAdmision estado() {
+        return new EstadoAdmision(
+                admisionProperties.getSubidasConcurrentes() - concurrencia.availablePermits(),
+                (long) (unidadesPresupuesto - presupuesto.availablePermits()) * BYTES_POR_UNIDAD,
+                admitidas.get(),
+                encoladas.get(),
+                rechazadas.get(),
+                admisionProperties.getDescargaPorCliente().toBytes());
+    }
+
+    public final class Permiso implements AutoCloseable {
+
+        private final int unidades;
+
+        private Permiso(int unidades) {
+            this.unidades = unidades;
+        }
+
+        @Override
+        public void close() {
+            presupuesto.release(unidades);
+            concurrencia.release();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.service.admision;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Lee en bloques acotados, pidiendo al limitador fichas por lo leído.
+ */
+public class EntradaLimitada extends FilterInputStream {
+
+    private static final int TAMANO_BLOQUE = 16 * 1024;
+
+    private final LimitadorTasa limitador;
+    private long bytesLeidos;
+
+    public EntradaLimitada(InputStream entrada, LimitadorTasa limitador) {
+        super(entrada);
+        this.limitador = limitador;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int leido = in.read();
+        if (leido >= 0) {
+            bytesLeidos++;
+            esperar(1);
+        }
+        return leido;
+    }
+
+    @Override
+    public int read(byte[] buffer, int desde, int longitud) throws IOException {
+        int leidos = in.read(buffer, desde, Math.min(longitud, TAMANO_BLOQUE));
+        if (leidos > 0) {
+            bytesLeidos += leidos;
+            esperar(leidos);
+        }
+        return leidos;
+    }
+
+    public long getBytesLeidos() {
+        return bytesLeidos;
+    }
+
+    private void esperar(int bytes) throws InterruptedIOException {
+        try {
+            limitador.consumir(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lectura interrumpida");
+        }
+    }
+}
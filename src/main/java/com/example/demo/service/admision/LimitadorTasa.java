@@ -0,0 +1,36 @@
+package com.example.demo.service.admision;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cubo de fichas: admite ráfagas de hasta un segundo de tasa y, pasado eso, hace esperar a
+ * quien consume lo necesario para no superar la tasa. Varios hilos pueden compartirlo.
+ */
+public class LimitadorTasa {
+
+    private final long bytesPorSegundo;
+    private double disponibles;
+    private long ultimaRecarga;
+
+    public LimitadorTasa(long bytesPorSegundo) {
+        this.bytesPorSegundo = bytesPorSegundo;
+        this.disponibles = bytesPorSegundo;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    public void consumir(long bytes) throws InterruptedException {
+        long espera;
+        synchronized (this) {
+            long ahora = System.nanoTime();
+            disponibles = Math.min(bytesPorSegundo,
+                    disponibles + (ahora - ultimaRecarga) * bytesPorSegundo / 1e9);
+            ultimaRecarga = ahora;
+            // Se descuenta ya aunque quede en negativo: quien llegue después espera también la deuda
+            disponibles -= bytes;
+            espera = disponibles < 0 ? (long) (-disponibles * 1e9 / bytesPorSegundo) : 0;
+        }
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.service.admision;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Escribe en bloques acotados, pidiendo antes fichas al limitador de cada bloque.
+ */
+class SalidaLimitada extends FilterOutputStream {
+
+    private static final int TAMANO_BLOQUE = 16 * 1024;
+
+    private final LimitadorTasa limitador;
+
+    SalidaLimitada(OutputStream salida, LimitadorTasa limitador) {
+        super(salida);
+        this.limitador = limitador;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        esperar(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] datos, int desde, int longitud) throws IOException {
+        int fin = desde + longitud;
+        for (int posicion = desde; posicion < fin; posicion += TAMANO_BLOQUE) {
+            int bloque = Math.min(TAMANO_BLOQUE, fin - posicion);
+            esperar(bloque);
+            out.write(datos, posicion, bloque);
+        }
+    }
+
+    private void esperar(int bytes) throws InterruptedIOException {
+        try {
+            limitador.consumir(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Descarga interrumpida");
+        }
+    }
+}
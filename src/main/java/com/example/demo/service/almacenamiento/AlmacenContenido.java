@@ -0,0 +1,59 @@
+package com.example.demo.service.almacenamiento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Almacén del contenido de los archivos, direccionado por el hash SHA-256 de sus bytes.
+ */
+public interface AlmacenContenido {
+
+    /**
+     * Consume {@code datos} hasta el final y los guarda bajo la clave que devuelve {@code hash},
+     * que solo se consulta una vez leído todo el flujo. Si la clave ya existe, se descarta la copia.
+     */
+    default void guardar(InputStream datos, Supplier<String> hash) throws IOException {
+        String temporal = guardarTemporal(datos);
+        try {
+            confirmar(temporal, hash.get());
+        } catch (IOException | RuntimeException e) {
+            descartar(temporal);
+            throw e;
+        }
+    }
+
+    /**
+     * Consume {@code datos} hasta el final y los guarda bajo una clave temporal, que devuelve.
+     * Lo guardado se puede leer con {@link #abrir} y acaba confirmado o descartado.
+     */
+    String guardarTemporal(InputStream datos) throws IOException;
+
+    /**
+     * Pasa lo guardado en {@code temporal} a la clave {@code hash}. Si esa clave ya existe, se
+     * descarta la copia.
+     */
+    void confirmar(String temporal, String hash) throws IOException;
+
+    void descartar(String temporal) throws IOException;
+
+    /**
+     * Abre el contenido a partir de la posición {@code desde}. Quien lo lee solo consume lo
+     * que necesita y lo cierra; el almacén no debe cargar por adelantado el resto.
+     */
+    InputStream abrir(String hash, long desde) throws IOException;
+
+    /**
+     * Ruta local del contenido cuando el almacén lo guarda en disco, para poder enviarlo sin
+     * copiarlo a memoria.
+     */
+    default Optional<Path> rutaLocal(String hash) {
+        return Optional.empty();
+    }
+
+    boolean existe(String hash);
+
+    void eliminar(String hash) throws IOException;
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service.almacenamiento;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Guarda el contenido en {@code archivos_contenido}. La subida se envía al driver como flujo
+ * ({@code setBinaryStream}) bajo una clave temporal y se renombra con el hash al terminar,
+ * porque el hash no se conoce hasta haber leído todo el contenido.
+ */
+@RequiredArgsConstructor
+public class AlmacenContenidoBaseDatos implements AlmacenContenido {
+
+    private static final String PREFIJO_TEMPORAL = "tmp-";
+    private static final int TAMANO_BLOQUE = 1024 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String guardarTemporal(InputStream datos) {
+        String claveTemporal = PREFIJO_TEMPORAL + UUID.randomUUID();
+        jdbcTemplate.update("insert into archivos_contenido (hash, datos) values (?, ?)", ps -> {
+            ps.setString(1, claveTemporal);
+            ps.setBinaryStream(2, datos);
+        });
+        return claveTemporal;
+    }
+
+    @Override
+    public void confirmar(String temporal, String hash) {
+        try {
+            if (!existe(hash)) {
+                jdbcTemplate.update("update archivos_contenido set hash = ? where hash = ?", hash, temporal);
+                return;
+            }
+        } catch (DuplicateKeyException e) {
+            // Otra subida guardó el mismo contenido a la vez
+        }
+        descartar(temporal);
+    }
+
+    @Override
+    public void descartar(String temporal) {
+        jdbcTemplate.update("delete from archivos_contenido where hash = ?", temporal);
+    }
+
+    @Override
+    public InputStream abrir(String hash, long desde) throws IOException {
+        LecturaPorBloques lectura = new LecturaPorBloques(hash, desde);
+        if (!lectura.cargar() && !existe(hash)) {
+            throw new FileNotFoundException(hash);
+        }
+        return lectura;
+    }
+
+    @Override
+    public boolean existe(String hash) {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "select count(*) from archivos_contenido where hash = ?", Integer.class, hash);
+        return existentes != null && existentes > 0;
+    }
+
+    @Override
+    public void eliminar(String hash) {
+        jdbcTemplate.update("delete from archivos_contenido where hash = ?", hash);
+    }
+
+    /**
+     * Lee el blob por tramos con {@code substring}, de modo que una descarga o un rango solo
+     * trae a memoria un bloque cada vez y nunca el resto del contenido que no se pide.
+     */
+    private class LecturaPorBloques extends InputStream {
+
+        private final String hash;
+        private long posicion;
+        private byte[] bloque = new byte[0];
+        private int indice;
+        private boolean terminado;
+
+        LecturaPorBloques(String hash, long desde) {
+            this.hash = hash;
+            this.posicion = desde;
+        }
+
+        @Override
+        public int read() {
+            if (indice >= bloque.length && !cargar()) {
+                return -1;
+            }
+            return bloque[indice++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int desde, int longitud) {
+            if (longitud == 0) {
+                return 0;
+            }
+            if (indice >= bloque.length && !cargar()) {
+                return -1;
+            }
+            int copiados = Math.min(longitud, bloque.length - indice);
+            System.arraycopy(bloque, indice, buffer, desde, copiados);
+            indice += copiados;
+            return copiados;
+        }
+
+        boolean cargar() {
+            if (terminado) {
+                return false;
+            }
+            List<byte[]> filas = jdbcTemplate.query(
+                    "select substring(datos, ?, ?) from archivos_contenido where hash = ?",
+                    (rs, fila) -> rs.getBytes(1), posicion + 1, TAMANO_BLOQUE, hash);
+            bloque = filas.isEmpty() || filas.get(0) == null ? new byte[0] : filas.get(0);
+            indice = 0;
+            posicion += bloque.length;
+            terminado = bloque.length < TAMANO_BLOQUE;
+            return bloque.length > 0;
+        }
+    }
+}
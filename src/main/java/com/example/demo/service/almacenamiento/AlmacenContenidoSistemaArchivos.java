@@ -0,0 +1,95 @@
+package com.example.demo.service.almacenamiento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Guarda cada contenido en {@code directorio/ab/cd/abcd...}, usando los primeros
+ * caracteres del hash como subdirectorios para no acumular miles de ficheros en uno solo.
+ * Lo que aún no tiene hash espera en {@code directorio/tmp}.
+ */
+public class AlmacenContenidoSistemaArchivos implements AlmacenContenido {
+
+    private static final int NIVELES = 2;
+    private static final int ANCHO_NIVEL = 2;
+    private static final String PREFIJO_TEMPORAL = "tmp-";
+
+    private final Path directorio;
+    private final Path directorioTemporal;
+
+    public AlmacenContenidoSistemaArchivos(Path directorio) {
+        this.directorio = directorio.toAbsolutePath().normalize();
+        this.directorioTemporal = this.directorio.resolve("tmp");
+    }
+
+    @Override
+    public String guardarTemporal(InputStream datos) throws IOException {
+        Files.createDirectories(directorioTemporal);
+        Path temporal = Files.createTempFile(directorioTemporal, PREFIJO_TEMPORAL, ".part");
+        try {
+            Files.copy(datos, temporal, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        return temporal.getFileName().toString();
+    }
+
+    @Override
+    public void confirmar(String temporal, String hash) throws IOException {
+        Path origen = ruta(temporal);
+        try {
+            Path destino = ruta(hash);
+            if (!Files.exists(destino)) {
+                Files.createDirectories(destino.getParent());
+                Files.move(origen, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(origen);
+        }
+    }
+
+    @Override
+    public void descartar(String temporal) throws IOException {
+        Files.deleteIfExists(ruta(temporal));
+    }
+
+    @Override
+    public InputStream abrir(String hash, long desde) throws IOException {
+        SeekableByteChannel canal = Files.newByteChannel(ruta(hash));
+        canal.position(desde);
+        return Channels.newInputStream(canal);
+    }
+
+    @Override
+    public Optional<Path> rutaLocal(String hash) {
+        return Optional.of(ruta(hash));
+    }
+
+    @Override
+    public boolean existe(String hash) {
+        return Files.exists(ruta(hash));
+    }
+
+    @Override
+    public void eliminar(String hash) throws IOException {
+        Files.deleteIfExists(ruta(hash));
+    }
+
+    public Path ruta(String hash) {
+        if (hash.startsWith(PREFIJO_TEMPORAL)) {
+            return directorioTemporal.resolve(hash);
+        }
+        Path ruta = directorio;
+        for (int nivel = 0; nivel < NIVELES; nivel++) {
+            ruta = ruta.resolve(hash.substring(nivel * ANCHO_NIVEL, (nivel + 1) * ANCHO_NIVEL));
+        }
+        return ruta.resolve(hash);
+    }
+}
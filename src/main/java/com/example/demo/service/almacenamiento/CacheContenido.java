@@ -0,0 +1,91 @@
+package com.example.demo.service.almacenamiento;
+
+import com.example.demo.config.CacheContenidoProperties;
+import com.example.demo.dto.EstadisticaCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Optional;
+
+/**
+ * Contenido de los archivos más descargados en buffers directos, fuera del heap. Caffeine
+ * decide qué entra y qué sale por frecuencia de uso (W-TinyLFU) y cada entrada pesa lo que
+ * ocupa, hasta el presupuesto configurado. Como el contenido se identifica por su hash nunca
+ * cambia; solo se invalida cuando el almacén lo elimina.
+ */
+@Component
+public class CacheContenido {
+
+    private static final String NOMBRE = "contenidos";
+
+    private final AlmacenContenido almacenContenido;
+    private final long tamanoMaximoEntrada;
+    private final Cache<String, ByteBuffer> cache;
+
+    public CacheContenido(AlmacenContenido almacenContenido, CacheContenidoProperties properties) {
+        this.almacenContenido = almacenContenido;
+        this.tamanoMaximoEntrada = Math.min(properties.getTamanoMaximoEntrada().toBytes(), Integer.MAX_VALUE);
+        this.cache = !properties.isHabilitada() ? null : Caffeine.newBuilder()
+                .maximumWeight(properties.getPresupuesto().toBytes())
+                .weigher((String hash, ByteBuffer datos) -> datos.capacity())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isHabilitada() {
+        return cache != null;
+    }
+
+    public Optional<EstadisticaCache> estadistica() {
+        return Optional.ofNullable(cache).map(nativa -> EstadisticaCache.de(NOMBRE, nativa));
+    }
+
+    /**
+     * Devuelve el contenido desde la caché y, si no estaba y cabe en una entrada, lo lee
+     * completo del almacén y lo ofrece a la caché. El buffer devuelto es una vista de solo
+     * lectura independiente para cada llamada.
+     */
+    public Optional<ByteBuffer> obtener(String hash, long tamano) throws IOException {
+        if (cache == null || tamano > tamanoMaximoEntrada) {
+            return Optional.empty();
+        }
+        ByteBuffer datos = cache.getIfPresent(hash);
+        if (datos == null) {
+            datos = leer(hash, (int) tamano);
+            if (datos == null) {
+                return Optional.empty();
+            }
+            cache.put(hash, datos);
+        }
+        return Optional.of(datos.asReadOnlyBuffer());
+    }
+
+    public void invalidar(String hash) {
+        if (cache != null) {
+            cache.invalidate(hash);
+        }
+    }
+
+    private ByteBuffer leer(String hash, int tamano) throws IOException {
+        ByteBuffer datos = ByteBuffer.allocateDirect(tamano);
+        try (InputStream entrada = almacenContenido.abrir(hash, 0);
+             ReadableByteChannel canal = Channels.newChannel(entrada)) {
+            // Si el almacén no tiene exactamente el tamaño registrado no se cachea
+            while (datos.hasRemaining()) {
+                if (canal.read(datos) == -1) {
+                    return null;
+                }
+            }
+            if (entrada.read() != -1) {
+                return null;
+            }
+        }
+        return datos.flip();
+    }
+}
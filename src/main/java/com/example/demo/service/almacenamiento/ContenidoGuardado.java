@@ -0,0 +1,6 @@
+package com.example.demo.service.almacenamiento;
+
+import com.example.demo.entidad.Codec;
+
+public record ContenidoGuardado(String hash, long tamano, Codec codec, long tamanoAlmacenado, boolean duplicado) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service.almacenamiento;
+
+/**
+ * Contenidos que se quedaron sin referencias y los bytes que ocupaban en el almacén.
+ */
+public record ContenidoLiberado(int contenidos, long bytes) {
+
+    public static final ContenidoLiberado NADA = new ContenidoLiberado(0, 0);
+
+    public ContenidoLiberado mas(ContenidoLiberado otro) {
+        return new ContenidoLiberado(contenidos + otro.contenidos, bytes + otro.bytes);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.service.almacenamiento;
+
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.utils.HashUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Envuelve el flujo de una subida para calcular el SHA-256 y contar los bytes a medida
+ * que el almacén los consume, cortando la lectura en cuanto se supera el tamaño máximo.
+ */
+public class EntradaContenido extends FilterInputStream {
+
+    private final MessageDigest digest = HashUtils.nuevoDigest();
+    private final long tamanoMaximo;
+    private final String mensajeExceso;
+    private long bytesLeidos;
+    private String hash;
+
+    public EntradaContenido(InputStream entrada, long tamanoMaximo, String mensajeExceso) {
+        super(entrada);
+        this.tamanoMaximo = tamanoMaximo;
+        this.mensajeExceso = mensajeExceso;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int leido = super.read();
+        if (leido >= 0) {
+            digest.update((byte) leido);
+            contar(1);
+        }
+        return leido;
+    }
+
+    @Override
+    public int read(byte[] buffer, int desde, int longitud) throws IOException {
+        int leidos = super.read(buffer, desde, longitud);
+        if (leidos > 0) {
+            digest.update(buffer, desde, leidos);
+            contar(leidos);
+        }
+        return leidos;
+    }
+
+    @Override
+    public long skip(long n) {
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getBytesLeidos() {
+        return bytesLeidos;
+    }
+
+    public String hash() {
+        if (hash == null) {
+            hash = HexFormat.of().formatHex(digest.digest());
+        }
+        return hash;
+    }
+
+    private void contar(int leidos) {
+        bytesLeidos += leidos;
+        if (bytesLeidos > tamanoMaximo) {
+            throw new ArchivoNoValidoException(mensajeExceso);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service.almacenamiento;
+
+import com.example.demo.config.AlmacenamientoProperties;
+import com.example.demo.repository.ContenidoArchivoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Comando de migración: al arrancar con {@code --migrar-contenido} copia por lotes el
+ * contenido guardado en MySQL al almacén en sistema de archivos, lo borra de la base de
+ * datos y termina la aplicación. Puede interrumpirse y relanzarse sin perder datos.
+ */
+@Slf4j
+@Order(2)
+@Component
+@RequiredArgsConstructor
+public class MigracionAlmacenamiento implements ApplicationRunner {
+
+    public static final String OPCION = "migrar-contenido";
+
+    private final AlmacenamientoProperties properties;
+    private final ContenidoArchivoRepository contenidoArchivoRepository;
+    private final AlmacenContenidoBaseDatos origen;
+    private final AlmacenContenidoSistemaArchivos destino;
+    private final ConfigurableApplicationContext contexto;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(OPCION)) {
+            return;
+        }
+        if (properties.getTipo() != AlmacenamientoProperties.Tipo.SISTEMA_ARCHIVOS) {
+            log.warn("La migración requiere archivos.almacen.tipo=sistema-archivos; no se migró nada");
+            return;
+        }
+
+        int migrados = 0;
+        String ultimo = "";
+        List<String> lote;
+        while (!(lote = contenidoArchivoRepository.findHashesDespuesDe(
+                ultimo, PageRequest.ofSize(properties.getTamanoLoteMigracion()))).isEmpty()) {
+            for (String hash : lote) {
+                try (InputStream datos = origen.abrir(hash, 0)) {
+                    destino.guardar(datos, () -> hash);
+                }
+                origen.eliminar(hash);
+            }
+            migrados += lote.size();
+            ultimo = lote.get(lote.size() - 1);
+            log.info("Migrados {} contenidos al sistema de archivos", migrados);
+        }
+
+        log.info("Migración terminada: {} contenidos movidos a {}", migrados, properties.getDirectorio());
+        System.exit(SpringApplication.exit(contexto, () -> 0));
+    }
+}
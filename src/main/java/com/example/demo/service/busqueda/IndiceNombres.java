@@ -0,0 +1,295 @@
+package com.example.demo.service.busqueda;
+
+import com.example.demo.dto.TextoArchivo;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.evento.ArchivoEliminadoEvent;
+import com.example.demo.evento.ArchivoGuardadoEvent;
+import com.example.demo.repository.ArchivoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria de n-gramas (hasta trigramas) sobre el nombre y la descripción
+ * de los archivos. Se carga al arrancar y se mantiene con los eventos de guardado y borrado,
+ * así que las búsquedas por subcadena no recorren la tabla.
+ */
+@Slf4j
+@Order(3)
+@Component
+@RequiredArgsConstructor
+public class IndiceNombres implements ApplicationRunner {
+
+    private static final int LONGITUD_GRAMA = 3;
+    private static final int TAMANO_LOTE_CARGA = 5000;
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    // Nombre exacto, prefijo del nombre, prefijo de una palabra del nombre, subcadena del nombre,
+    // prefijo de una palabra de la descripción y subcadena de la descripción
+    private static final int COINCIDE_NOMBRE = 0;
+    private static final int PREFIJO_NOMBRE = 1;
+    private static final int PALABRA_NOMBRE = 2;
+    private static final int SUBCADENA_NOMBRE = 3;
+    private static final int PALABRA_DESCRIPCION = 4;
+    private static final int SUBCADENA_DESCRIPCION = 5;
+
+    private static final Comparator<Resultado> ORDEN = Comparator.comparingInt(Resultado::puntuacion)
+            .thenComparingInt(Resultado::longitudNombre)
+            .thenComparing(Comparator.comparingInt(Resultado::id).reversed());
+
+    private final ArchivoRepository archivoRepository;
+
+    private final Map<Long, RoaringBitmap> gramas = new HashMap<>();
+    private final Map<Integer, Entrada> entradas = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Archivos tocados por eventos mientras se carga el índice; la carga no debe pisarlos
+    private final Set<Integer> modificadosDuranteCarga = new HashSet<>();
+    private volatile boolean listo;
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        long ultimo = 0;
+        int total = 0;
+        List<TextoArchivo> lote;
+        while (!(lote = archivoRepository.findTextosDespuesDe(ultimo, PageRequest.of(0, TAMANO_LOTE_CARGA))).isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                for (TextoArchivo texto : lote) {
+                    int id = Math.toIntExact(texto.id());
+                    if (!modificadosDuranteCarga.contains(id)) {
+                        agregar(id, texto.nombreArchivo(), texto.descripcion());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ultimo = lote.get(lote.size() - 1).id();
+            total += lote.size();
+        }
+
+        lock.writeLock().lock();
+        try {
+            modificadosDuranteCarga.clear();
+            listo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de nombres cargado con {} archivos en {} ms", total,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alGuardar(ArchivoGuardadoEvent evento) {
+        Archivo archivo = evento.archivo();
+        int id = Math.toIntExact(archivo.getId());
+        lock.writeLock().lock();
+        try {
+            quitar(id);
+            agregar(id, archivo.getNombreArchivo(), archivo.getDescripcion());
+            if (!listo) {
+                modificadosDuranteCarga.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alEliminar(ArchivoEliminadoEvent evento) {
+        int id = Math.toIntExact(evento.archivo().getId());
+        lock.writeLock().lock();
+        try {
+            quitar(id);
+            if (!listo) {
+                modificadosDuranteCarga.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los ids de la página pedida, ordenados por relevancia. Con {@code soloPrefijo}
+     * solo cuentan las coincidencias al principio del nombre o de alguna de sus palabras
+     * (o de la descripción).
+     */
+    public List<Long> buscar(String termino, boolean soloPrefijo, int pagina, int limite) {
+        String consulta = normalizar(termino);
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        int n = Math.min(LONGITUD_GRAMA, consulta.length());
+        long necesarios = (long) (pagina + 1) * limite;
+
+        // Montículo con los peores resultados arriba, acotado a los que hacen falta para la página
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(ORDEN.reversed());
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> listas = new ArrayList<>();
+            for (int i = 0; i + n <= consulta.length(); i++) {
+                RoaringBitmap lista = gramas.get(clave(consulta, i, n));
+                if (lista == null) {
+                    return List.of();
+                }
+                listas.add(lista);
+            }
+            listas.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+
+            RoaringBitmap candidatos = listas.get(0);
+            if (listas.size() > 1) {
+                candidatos = RoaringBitmap.and(candidatos, listas.get(1));
+                for (int i = 2; i < listas.size() && !candidatos.isEmpty(); i++) {
+                    candidatos.and(listas.get(i));
+                }
+            }
+
+            for (int id : candidatos) {
+                Entrada entrada = entradas.get(id);
+                int puntuacion = puntuar(entrada, consulta, soloPrefijo);
+                if (puntuacion < 0) {
+                    continue;
+                }
+                Resultado resultado = new Resultado(id, puntuacion, entrada.nombre().length());
+                if (mejores.size() < necesarios) {
+                    mejores.add(resultado);
+                } else if (ORDEN.compare(resultado, mejores.peek()) < 0) {
+                    mejores.poll();
+                    mejores.add(resultado);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long desde = (long) pagina * limite;
+        if (mejores.size() <= desde) {
+            return List.of();
+        }
+        List<Resultado> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(ORDEN);
+        return ordenados.subList((int) desde, ordenados.size()).stream()
+                .map(resultado -> (long) resultado.id())
+                .toList();
+    }
+
+    private void agregar(int id, String nombre, String descripcion) {
+        Entrada entrada = new Entrada(normalizar(nombre), normalizar(descripcion));
+        entradas.put(id, entrada);
+        for (long grama : gramasDe(entrada)) {
+            gramas.computeIfAbsent(grama, clave -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void quitar(int id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        for (long grama : gramasDe(entrada)) {
+            RoaringBitmap lista = gramas.get(grama);
+            if (lista != null) {
+                lista.remove(id);
+                if (lista.isEmpty()) {
+                    gramas.remove(grama);
+                }
+            }
+        }
+    }
+
+    private static Set<Long> gramasDe(Entrada entrada) {
+        Set<Long> resultado = new HashSet<>();
+        extraerGramas(entrada.nombre(), resultado);
+        extraerGramas(entrada.descripcion(), resultado);
+        return resultado;
+    }
+
+    // Se indexan también unigramas y bigramas para responder a las consultas de uno o dos caracteres
+    private static void extraerGramas(String texto, Set<Long> destino) {
+        for (int i = 0; i < texto.length(); i++) {
+            for (int n = 1; n <= LONGITUD_GRAMA && i + n <= texto.length(); n++) {
+                destino.add(clave(texto, i, n));
+            }
+        }
+    }
+
+    private static long clave(String texto, int desde, int longitud) {
+        long clave = longitud;
+        for (int i = desde; i < desde + longitud; i++) {
+            clave = (clave << Character.SIZE) | texto.charAt(i);
+        }
+        return clave;
+    }
+
+    private static int puntuar(Entrada entrada, String consulta, boolean soloPrefijo) {
+        String nombre = entrada.nombre();
+        if (nombre.equals(consulta)) {
+            return COINCIDE_NOMBRE;
+        }
+        if (nombre.startsWith(consulta)) {
+            return PREFIJO_NOMBRE;
+        }
+        if (empiezaPalabra(nombre, consulta)) {
+            return PALABRA_NOMBRE;
+        }
+        if (!soloPrefijo && nombre.contains(consulta)) {
+            return SUBCADENA_NOMBRE;
+        }
+        if (empiezaPalabra(entrada.descripcion(), consulta)) {
+            return PALABRA_DESCRIPCION;
+        }
+        if (!soloPrefijo && entrada.descripcion().contains(consulta)) {
+            return SUBCADENA_DESCRIPCION;
+        }
+        return -1;
+    }
+
+    private static boolean empiezaPalabra(String texto, String consulta) {
+        for (int i = texto.indexOf(consulta); i >= 0; i = texto.indexOf(consulta, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(texto.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sin mayúsculas ni tildes: "Informe" encuentra "INFORMÉ"
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = DIACRITICOS.matcher(Normalizer.normalize(texto.strip(), Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entrada(String nombre, String descripcion) {
+    }
+
+    private record Resultado(int id, int puntuacion, int longitudNombre) {
+    }
+}
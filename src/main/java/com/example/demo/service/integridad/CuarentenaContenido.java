@@ -0,0 +1,59 @@
+package com.example.demo.service.integridad;
+
+import com.example.demo.config.IntegridadProperties;
+import com.example.demo.repository.ProblemaIntegridadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contenidos con un problema de integridad abierto, en memoria para que la descarga lo
+ * consulte sin ir a la base de datos. Vacío si la cuarentena está desactivada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CuarentenaContenido implements ApplicationRunner {
+
+    private final ProblemaIntegridadRepository problemaIntegridadRepository;
+    private final IntegridadProperties integridadProperties;
+
+    private final Set<String> hashes = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        recargar();
+        if (!hashes.isEmpty()) {
+            log.warn("{} contenidos en cuarentena por problemas de integridad", hashes.size());
+        }
+    }
+
+    public boolean contiene(String hash) {
+        return hash != null && hashes.contains(hash);
+    }
+
+    void agregar(String hash) {
+        if (integridadProperties.isCuarentena()) {
+            hashes.add(hash);
+        }
+    }
+
+    void quitar(String hash) {
+        hashes.remove(hash);
+    }
+
+    void recargar() {
+        if (!integridadProperties.isCuarentena()) {
+            return;
+        }
+        Collection<String> abiertos = problemaIntegridadRepository.findHashesAbiertos();
+        hashes.retainAll(abiertos);
+        hashes.addAll(abiertos);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.demo.service.integridad;
+
+import com.example.demo.config.IntegridadProperties;
+import com.example.demo.dto.InformeIntegridad;
+import com.example.demo.dto.ProblemaDetectado;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Codec;
+import com.example.demo.entidad.Contenido;
+import com.example.demo.entidad.CursorIntegridad;
+import com.example.demo.entidad.ProblemaIntegridad;
+import com.example.demo.entidad.TipoProblemaIntegridad;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.repository.CursorIntegridadRepository;
+import com.example.demo.repository.ProblemaIntegridadRepository;
+import com.example.demo.service.admision.EntradaLimitada;
+import com.example.demo.service.admision.LimitadorTasa;
+import com.example.demo.service.almacenamiento.AlmacenContenido;
+import com.example.demo.service.almacenamiento.EntradaContenido;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Relee en segundo plano cada contenido del almacén y comprueba que sigue ocupando lo
+ * registrado y que sus bytes dan el SHA-256 con el que se guardó (el hash es la clave del
+ * contenido, así que todo archivo guardado tiene ya su checksum). Recorre {@code contenidos}
+ * por lotes en orden de hash, guardando el avance en {@code integridad_cursor} para seguir
+ * donde iba tras un reinicio; cada contenido compartido se lee una sola vez.
+ * <p>
+ * Para no restar a las descargas trabaja en un único hilo de prioridad mínima, lee del almacén
+ * sin pasar por la caché de contenido y a no más de {@code archivos.integridad.tasa}, y fuera de
+ * transacción: con almacenamiento en bd cada bloque toma una conexión del pool y la devuelve.
+ */
+@Slf4j
+@Service
+public class VerificadorIntegridad {
+
+    private static final int MAX_PROBLEMAS_INFORME = 100;
+
+    private final ContenidoRepository contenidoRepository;
+    private final ArchivoRepository archivoRepository;
+    private final ProblemaIntegridadRepository problemaIntegridadRepository;
+    private final CursorIntegridadRepository cursorIntegridadRepository;
+    private final AlmacenContenido almacenContenido;
+    private final CuarentenaContenido cuarentenaContenido;
+    private final IntegridadProperties integridadProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final LimitadorTasa limitador;
+    private final ScheduledExecutorService ejecutor;
+    // Lecturas fallidas seguidas de cada contenido, para no quedarse reintentando siempre el mismo
+    private final Map<String, Integer> fallosLectura = new ConcurrentHashMap<>();
+
+    public VerificadorIntegridad(ContenidoRepository contenidoRepository, ArchivoRepository archivoRepository,
+                                 ProblemaIntegridadRepository problemaIntegridadRepository,
+                                 CursorIntegridadRepository cursorIntegridadRepository,
+                                 AlmacenContenido almacenContenido, CuarentenaContenido cuarentenaContenido,
+                                 IntegridadProperties integridadProperties, TransactionTemplate transactionTemplate) {
+        this.contenidoRepository = contenidoRepository;
+        this.archivoRepository = archivoRepository;
+        this.problemaIntegridadRepository = problemaIntegridadRepository;
+        this.cursorIntegridadRepository = cursorIntegridadRepository;
+        this.almacenContenido = almacenContenido;
+        this.cuarentenaContenido = cuarentenaContenido;
+        this.integridadProperties = integridadProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.limitador = new LimitadorTasa(integridadProperties.getTasa().toBytes());
+        CustomizableThreadFactory fabrica = new CustomizableThreadFactory("integridad-");
+        fabrica.setThreadPriority(Thread.MIN_PRIORITY);
+        fabrica.setDaemon(true);
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(fabrica);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!integridadProperties.isHabilitada()) {
+            return;
+        }
+        long intervalo = integridadProperties.getIntervalo().toMillis();
+        ejecutor.scheduleWithFixedDelay(this::verificarProgramado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Verifica el siguiente lote de la pasada en curso, o empieza una nueva si ya pasó la pausa
+     * desde la anterior. Devuelve cuántos contenidos verificó.
+     */
+    public int verificarSiguienteLote() {
+        CursorIntegridad cursor = cursorIntegridadRepository.findById(CursorIntegridad.ID)
+                .orElseGet(() -> CursorIntegridad.builder().id(CursorIntegridad.ID).build());
+        if (cursor.getUltimoHash() == null) {
+            if (cursor.getFinUltimaPasada() != null
+                    && cursor.getFinUltimaPasada().plus(integridadProperties.getPausaEntrePasadas()).isAfter(LocalDateTime.now())) {
+                return 0;
+            }
+            // El hash vacío marca una pasada empezada: es anterior a cualquier hash
+            cursor.setUltimoHash("");
+            cursor.setPasada(cursor.getPasada() + 1);
+            cursor.setInicioPasada(LocalDateTime.now());
+            cursor.setVerificados(0);
+            cursor.setBytesVerificados(0);
+            cursor = cursorIntegridadRepository.save(cursor);
+        }
+
+        int tamanoLote = integridadProperties.getTamanoLote();
+        List<Contenido> lote = contenidoRepository.findByHashGreaterThanOrderByHashAsc(
+                cursor.getUltimoHash(), PageRequest.of(0, tamanoLote));
+        Set<String> abiertos = new HashSet<>(problemaIntegridadRepository.findHashesAbiertos());
+        int verificados = 0;
+        for (Contenido contenido : lote) {
+            if (Thread.currentThread().isInterrupted()) {
+                return verificados;
+            }
+            long bytes = verificar(contenido, abiertos);
+            cursor.setUltimoHash(contenido.getHash());
+            cursor.setVerificados(cursor.getVerificados() + 1);
+            cursor.setBytesVerificados(cursor.getBytesVerificados() + bytes);
+            cursor = cursorIntegridadRepository.save(cursor);
+            verificados++;
+        }
+
+        if (lote.size() < tamanoLote) {
+            cursor.setUltimoHash(null);
+            cursor.setFinUltimaPasada(LocalDateTime.now());
+            cursorIntegridadRepository.save(cursor);
+            transactionTemplate.executeWithoutResult(estado -> problemaIntegridadRepository.resolverSinContenido(LocalDateTime.now()));
+            cuarentenaContenido.recargar();
+            log.info("Pasada {} de verificación de integridad terminada: {} contenidos, {} bytes leídos, {} problemas abiertos",
+                    cursor.getPasada(), cursor.getVerificados(), cursor.getBytesVerificados(),
+                    problemaIntegridadRepository.findHashesAbiertos().size());
+        }
+        return verificados;
+    }
+
+    @Transactional(readOnly = true)
+    public InformeIntegridad informe(boolean incluirResueltos) {
+        CursorIntegridad cursor = cursorIntegridadRepository.findById(CursorIntegridad.ID)
+                .orElseGet(() -> CursorIntegridad.builder().id(CursorIntegridad.ID).build());
+        List<ProblemaIntegridad> problemas = incluirResueltos
+                ? problemaIntegridadRepository.findAllByOrderByFechaDeteccionDesc(PageRequest.of(0, MAX_PROBLEMAS_INFORME))
+                : problemaIntegridadRepository.findByFechaResolucionIsNullOrderByFechaDeteccionDesc();
+        Map<String, List<Long>> archivosPorHash = problemas.isEmpty() ? Map.of()
+                : archivoRepository.findByHashContenidoInOrderByIdAsc(problemas.stream().map(ProblemaIntegridad::getHash).toList())
+                .stream()
+                .collect(Collectors.groupingBy(Archivo::getHashContenido, Collectors.mapping(Archivo::getId, Collectors.toList())));
+        List<ProblemaDetectado> detectados = problemas.stream()
+                .map(problema -> new ProblemaDetectado(problema.getId(), problema.getHash(), problema.getTipo(),
+                        problema.getDetalle(), problema.getFechaDeteccion(), problema.getFechaComprobacion(),
+                        problema.getFechaResolucion(), archivosPorHash.getOrDefault(problema.getHash(), List.of())))
+                .toList();
+        return new InformeIntegridad(integridadProperties.isHabilitada(), cursor.getPasada(), cursor.getUltimoHash() != null,
+                cursor.getInicioPasada(), cursor.getFinUltimaPasada(), cursor.getVerificados(),
+                cursor.getBytesVerificados(), contenidoRepository.count(), detectados);
+    }
+
+    private void verificarProgramado() {
+        try {
+            verificarSiguienteLote();
+        } catch (RuntimeException e) {
+            // Un fallo pasajero (conexión, almacén) no es un problema del contenido: se reintenta
+            // en el siguiente intervalo desde el mismo punto, hasta reintentos-lectura veces
+            // si es la lectura del contenido la que falla
+            log.warn("Verificación de integridad interrumpida", e);
+        }
+    }
+
+    // Devuelve los bytes leídos del almacén
+    private long verificar(Contenido contenido, Set<String> abiertos) {
+        String hash = contenido.getHash();
+        Codec codec = contenido.getCodec() != null ? contenido.getCodec() : Codec.NINGUNO;
+        long almacenados = 0;
+        Optional<Hallazgo> hallazgo;
+        try (EntradaLimitada almacenada = new EntradaLimitada(almacenContenido.abrir(hash, 0), limitador)) {
+            InputStream datos = codec == Codec.DEFLATE ? new InflaterInputStream(almacenada) : almacenada;
+            EntradaContenido original = new EntradaContenido(datos, Long.MAX_VALUE, null);
+            try {
+                original.transferTo(OutputStream.nullOutputStream());
+            } finally {
+                almacenados = almacenada.getBytesLeidos();
+            }
+            hallazgo = comparar(contenido, almacenados, original.getBytesLeidos(), original.hash());
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            hallazgo = Optional.of(new Hallazgo(TipoProblemaIntegridad.FALTANTE, "No está en el almacén"));
+        } catch (EOFException e) {
+            hallazgo = Optional.of(new Hallazgo(TipoProblemaIntegridad.TAMANO,
+                    "Los datos comprimidos terminan antes de tiempo tras " + almacenados + " bytes"));
+        } catch (ZipException e) {
+            hallazgo = Optional.of(new Hallazgo(TipoProblemaIntegridad.ILEGIBLE, "No se puede descomprimir: " + e.getMessage()));
+        } catch (IOException e) {
+            int fallos = fallosLectura.merge(hash, 1, Integer::sum);
+            if (fallos < integridadProperties.getReintentosLectura()) {
+                throw new IllegalStateException("No se pudo leer el contenido " + hash + " (intento " + fallos + ")", e);
+            }
+            hallazgo = Optional.of(new Hallazgo(TipoProblemaIntegridad.ILEGIBLE,
+                    "No se pudo leer tras " + fallos + " intentos: " + e));
+        }
+        fallosLectura.remove(hash);
+
+        if (hallazgo.isPresent()) {
+            // Pudo eliminarse mientras se leía: entonces no hay nada que marcar
+            if (contenidoRepository.existsById(hash)) {
+                registrar(hash, hallazgo.get());
+            }
+        } else if (abiertos.contains(hash)) {
+            resolver(hash);
+        }
+        return almacenados;
+    }
+
+    private Optional<Hallazgo> comparar(Contenido contenido, long almacenados, long originales, String hash) {
+        if (contenido.getTamanoAlmacenado() != null && almacenados != contenido.getTamanoAlmacenado()) {
+            return Optional.of(new Hallazgo(TipoProblemaIntegridad.TAMANO, String.format(
+                    "Ocupa %d bytes en el almacén y se registraron %d", almacenados, contenido.getTamanoAlmacenado())));
+        }
+        if (originales != contenido.getTamano()) {
+            return Optional.of(new Hallazgo(TipoProblemaIntegridad.TAMANO, String.format(
+                    "Tiene %d bytes y se registraron %d", originales, contenido.getTamano())));
+        }
+        if (!hash.equals(contenido.getHash())) {
+            return Optional.of(new Hallazgo(TipoProblemaIntegridad.CHECKSUM, "Los bytes dan el SHA-256 " + hash));
+        }
+        return Optional.empty();
+    }
+
+    private void registrar(String hash, Hallazgo hallazgo) {
+        LocalDateTime ahora = LocalDateTime.now();
+        ProblemaIntegridad problema = problemaIntegridadRepository.findFirstByHashAndFechaResolucionIsNull(hash)
+                .orElseGet(() -> ProblemaIntegridad.builder().hash(hash).fechaDeteccion(ahora).build());
+        if (problema.getId() == null) {
+            log.error("Problema de integridad en el contenido {}: {} ({})", hash, hallazgo.tipo(), hallazgo.detalle());
+        }
+        problema.setTipo(hallazgo.tipo());
+        problema.setDetalle(hallazgo.detalle());
+        problema.setFechaComprobacion(ahora);
+        problemaIntegridadRepository.save(problema);
+        cuarentenaContenido.agregar(hash);
+    }
+
+    private void resolver(String hash) {
+        problemaIntegridadRepository.findFirstByHashAndFechaResolucionIsNull(hash).ifPresent(problema -> {
+            problema.setFechaComprobacion(LocalDateTime.now());
+            problema.setFechaResolucion(problema.getFechaComprobacion());
+            problemaIntegridadRepository.save(problema);
+            log.info("El contenido {} vuelve a superar la verificación de integridad", hash);
+        });
+        cuarentenaContenido.quitar(hash);
+    }
+
+    private record Hallazgo(TipoProblemaIntegridad tipo, String detalle) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.service.miniatura;
+
+import com.example.demo.config.MiniaturaProperties;
+import com.example.demo.entidad.Miniatura;
+import com.example.demo.utils.TipoMime;
+import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+/**
+ * Genera miniaturas JPEG de imágenes PNG/JPEG y de la primera página de los PDF, solo con
+ * Java (ImageIO y PDFBox).
+ */
+@Component
+@RequiredArgsConstructor
+public class GeneradorMiniaturas {
+
+    private final MiniaturaProperties miniaturaProperties;
+
+    public Miniatura generar(String hash, InputStream datos, String tipoMime) throws IOException {
+        BufferedImage origen = TipoMime.PDF.getMime().equals(tipoMime) ? renderizarPdf(datos) : leerImagen(datos);
+        BufferedImage miniatura = escalar(origen);
+        return Miniatura.builder()
+                .hash(hash)
+                .ancho(miniatura.getWidth())
+                .alto(miniatura.getHeight())
+                .datos(codificar(miniatura))
+                .fechaCreacion(LocalDateTime.now())
+                .build();
+    }
+
+    private BufferedImage leerImagen(InputStream datos) throws IOException {
+        try (ImageInputStream imagen = new MemoryCacheImageInputStream(datos)) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(imagen);
+            if (!lectores.hasNext()) {
+                throw new IOException("Formato de imagen no reconocido");
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(imagen, true, true);
+                // Se decodifica saltando píxeles: una foto de 8000x6000 no llega a ocupar 190 MB
+                // en memoria para acabar en 256 píxeles
+                int lado = Math.max(lector.getWidth(0), lector.getHeight(0));
+                int paso = Math.max(1, lado / (miniaturaProperties.getTamano() * 2));
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(paso, paso, 0, 0);
+                return lector.read(0, parametros);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    private BufferedImage renderizarPdf(InputStream datos) throws IOException {
+        try (PDDocument documento = Loader.loadPDF(new RandomAccessReadBuffer(datos))) {
+            if (documento.getNumberOfPages() == 0) {
+                throw new IOException("El PDF no tiene páginas");
+            }
+            // Se renderiza directamente al tamaño de la miniatura, no a 72 ppp
+            PDRectangle pagina = documento.getPage(0).getCropBox();
+            float escala = miniaturaProperties.getTamano() / Math.max(pagina.getWidth(), pagina.getHeight());
+            return new PDFRenderer(documento).renderImage(0, escala, ImageType.RGB);
+        }
+    }
+
+    private BufferedImage escalar(BufferedImage origen) {
+        double factor = Math.min(1.0,
+                (double) miniaturaProperties.getTamano() / Math.max(origen.getWidth(), origen.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(origen.getWidth() * factor));
+        int alto = Math.max(1, (int) Math.round(origen.getHeight() * factor));
+
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = destino.createGraphics();
+        try {
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG no admite transparencia: el fondo transparente de un PNG queda en blanco
+            grafico.setColor(Color.WHITE);
+            grafico.fillRect(0, 0, ancho, alto);
+            grafico.drawImage(origen, 0, 0, ancho, alto, null);
+        } finally {
+            grafico.dispose();
+        }
+        return destino;
+    }
+
+    private byte[] codificar(BufferedImage imagen) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (ImageOutputStream destino = new MemoryCacheImageOutputStream(salida)) {
+            escritor.setOutput(destino);
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(miniaturaProperties.getCalidad());
+            escritor.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.service.miniatura;
+
+import com.example.demo.config.MiniaturaProperties;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Codec;
+import com.example.demo.entidad.Miniatura;
+import com.example.demo.evento.ArchivoGuardadoEvent;
+import com.example.demo.exception.ArchivoNoEncontradoException;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.repository.MiniaturaRepository;
+import com.example.demo.service.ContenidoService;
+import com.example.demo.utils.ArchivoConstants;
+import com.example.demo.utils.EtagUtils;
+import com.example.demo.utils.Mensajes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Genera las miniaturas después de guardar, en un grupo de hilos propio y acotado: la subida
+ * no espera por ellas y, si la cola está llena, la miniatura se genera la primera vez que se
+ * pide.
+ */
+@Slf4j
+@Service
+public class MiniaturaService {
+
+    private static final String CACHE_CONTROL_VERSIONADA = "max-age=31536000, immutable";
+    private static final String CACHE_CONTROL_REVALIDAR = "no-cache";
+    private static final int MAX_FALLIDAS = 10_000;
+
+    private final MiniaturaRepository miniaturaRepository;
+    private final ContenidoRepository contenidoRepository;
+    private final ContenidoService contenidoService;
+    private final GeneradorMiniaturas generadorMiniaturas;
+    private final MiniaturaProperties miniaturaProperties;
+    private final ThreadPoolExecutor ejecutor;
+
+    // Contenidos con la miniatura en cola o generándose
+    private final Set<String> pendientes = ConcurrentHashMap.newKeySet();
+    // Contenidos que no se pudieron leer como imagen; no se reintentan en cada petición
+    private final Cache<String, Boolean> fallidas = Caffeine.newBuilder().maximumSize(MAX_FALLIDAS).build();
+
+    public MiniaturaService(MiniaturaRepository miniaturaRepository, ContenidoRepository contenidoRepository,
+                            ContenidoService contenidoService, GeneradorMiniaturas generadorMiniaturas,
+                            MiniaturaProperties miniaturaProperties) {
+        this.miniaturaRepository = miniaturaRepository;
+        this.contenidoRepository = contenidoRepository;
+        this.contenidoService = contenidoService;
+        this.generadorMiniaturas = generadorMiniaturas;
+        this.miniaturaProperties = miniaturaProperties;
+        int hilos = miniaturaProperties.getHilos();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(miniaturaProperties.getCola()), new CustomizableThreadFactory("miniaturas-"));
+        this.ejecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alGuardar(ArchivoGuardadoEvent evento) {
+        programar(evento.archivo());
+    }
+
+    /**
+     * Devuelve la miniatura del archivo. Se identifica por el hash del contenido, así que con
+     * {@code version} igual al hash actual la respuesta no cambia nunca y se puede cachear sin
+     * revalidar; sin ella se revalida con el ETag.
+     */
+    public ResponseEntity<byte[]> obtener(Archivo archivo, String version, HttpServletRequest peticion) {
+        String hash = archivo.getHashContenido();
+        if (hash == null || !archivo.isConMiniatura()) {
+            throw new ArchivoNoEncontradoException(String.format(Mensajes.MINIATURA_NO_DISPONIBLE, archivo.getId()));
+        }
+        HttpHeaders cabeceras = new HttpHeaders();
+        String etag = "\"" + hash + "-miniatura\"";
+        cabeceras.setETag(etag);
+        cabeceras.setCacheControl(hash.equals(version) ? CACHE_CONTROL_VERSIONADA : CACHE_CONTROL_REVALIDAR);
+        String ifNoneMatch = peticion.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && EtagUtils.coincide(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(cabeceras).build();
+        }
+
+        Optional<Miniatura> miniatura = miniaturaRepository.findById(hash);
+        if (miniatura.isEmpty()) {
+            programar(archivo);
+            throw new ArchivoNoEncontradoException(String.format(Mensajes.MINIATURA_NO_DISPONIBLE, archivo.getId()));
+        }
+        cabeceras.set(HttpHeaders.CONTENT_TYPE, ArchivoConstants.TIPO_MINIATURA);
+        return ResponseEntity.ok().headers(cabeceras).body(miniatura.get().getDatos());
+    }
+
+    private void programar(Archivo archivo) {
+        String hash = archivo.getHashContenido();
+        if (!miniaturaProperties.isHabilitadas() || hash == null || !archivo.isConMiniatura()
+                || fallidas.getIfPresent(hash) != null || !pendientes.add(hash)) {
+            return;
+        }
+        Codec codec = archivo.getCodec() != null ? archivo.getCodec() : Codec.NINGUNO;
+        try {
+            ejecutor.execute(() -> {
+                try {
+                    generar(hash, codec, archivo.getTipoArchivo());
+                } finally {
+                    pendientes.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendientes.remove(hash);
+            log.debug("Cola de miniaturas llena; la de {} se generará cuando se pida", hash);
+        }
+    }
+
+    private void generar(String hash, Codec codec, String tipoMime) {
+        if (miniaturaRepository.existsById(hash)) {
+            return;
+        }
+        Miniatura miniatura;
+        try (InputStream datos = contenidoService.abrir(hash, codec, 0)) {
+            miniatura = generadorMiniaturas.generar(hash, datos, tipoMime);
+        } catch (IOException | RuntimeException e) {
+            fallidas.put(hash, Boolean.TRUE);
+            log.warn("No se pudo generar la miniatura del contenido {}: {}", hash, e.getMessage());
+            return;
+        }
+        // El contenido pudo borrarse mientras se generaba
+        if (contenidoRepository.existsById(hash)) {
+            miniaturaRepository.save(miniatura);
+        }
+    }
+}
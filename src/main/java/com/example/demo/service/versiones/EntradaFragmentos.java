@@ -0,0 +1,107 @@
+package com.example.demo.service.versiones;
+
+import com.example.demo.entidad.Codec;
+import com.example.demo.entidad.FragmentoVersion;
+import com.example.demo.service.ContenidoService;
+import com.example.demo.utils.HashUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Los fragmentos de una versión leídos uno tras otro como un único flujo. Cada fragmento se
+ * abre al llegar a él, así que solo hay uno abierto a la vez.
+ * <p>
+ * Comprueba la versión al leerla: el último bloque no se entrega hasta que lo leído da el
+ * SHA-256 de la versión, y si los fragmentos se acaban antes de su tamaño falla con
+ * {@link EOFException}.
+ */
+class EntradaFragmentos extends InputStream {
+
+    private final ContenidoService contenidoService;
+    private final Map<String, Codec> codecs;
+    private final Iterator<FragmentoVersion> pendientes;
+    private final String hashEsperado;
+    private final long tamanoEsperado;
+    private final MessageDigest digest = HashUtils.nuevoDigest();
+    private long leidosTotal;
+    private InputStream actual;
+
+    EntradaFragmentos(ContenidoService contenidoService, List<FragmentoVersion> fragmentos, Map<String, Codec> codecs,
+                      String hashEsperado, long tamanoEsperado) {
+        this.contenidoService = contenidoService;
+        this.codecs = codecs;
+        this.pendientes = fragmentos.iterator();
+        this.hashEsperado = hashEsperado;
+        this.tamanoEsperado = tamanoEsperado;
+    }
+
+    /**
+     * Abre el primer fragmento, para que un contenido que falta se note antes de empezar a
+     * enviar la respuesta.
+     */
+    void abrirPrimero() throws IOException {
+        if (actual == null && pendientes.hasNext()) {
+            abrirSiguiente();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] uno = new byte[1];
+        return read(uno, 0, 1) == -1 ? -1 : uno[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int desde, int longitud) throws IOException {
+        if (longitud == 0) {
+            return 0;
+        }
+        while (actual != null || pendientes.hasNext()) {
+            if (actual == null) {
+                abrirSiguiente();
+            }
+            int leidos = actual.read(buffer, desde, (int) Math.min(longitud, Math.max(1, tamanoEsperado - leidosTotal)));
+            if (leidos > 0) {
+                digest.update(buffer, desde, leidos);
+                leidosTotal += leidos;
+                if (leidosTotal >= tamanoEsperado) {
+                    comprobar();
+                }
+                return leidos;
+            }
+            actual.close();
+            actual = null;
+        }
+        if (leidosTotal < tamanoEsperado) {
+            throw new EOFException("La versión termina tras " + leidosTotal + " de " + tamanoEsperado + " bytes");
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (actual != null) {
+            actual.close();
+            actual = null;
+        }
+    }
+
+    private void abrirSiguiente() throws IOException {
+        String hash = pendientes.next().getHashFragmento();
+        actual = contenidoService.abrir(hash, codecs.getOrDefault(hash, Codec.NINGUNO), 0);
+    }
+
+    private void comprobar() throws IOException {
+        String hash = HexFormat.of().formatHex(digest.digest());
+        if (leidosTotal != tamanoEsperado || !hash.equals(hashEsperado)) {
+            throw new IOException("Los fragmentos de la versión no coinciden con su hash " + hashEsperado);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service.versiones;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Parte un flujo en fragmentos de tamaño variable definidos por el propio contenido (CDC con
+ * gear hash, con la normalización de FastCDC). El corte depende solo de los últimos 64 bytes
+ * leídos, así que insertar o borrar bytes en un punto del archivo solo cambia los fragmentos
+ * de alrededor: los demás salen iguales y, como se guardan por su hash, no se vuelven a escribir.
+ */
+public final class FragmentadorContenido {
+
+    public static final int TAMANO_MINIMO = 16 * 1024;
+    public static final int TAMANO_MEDIO = 64 * 1024;
+    public static final int TAMANO_MAXIMO = 256 * 1024;
+
+    // Semilla fija: la tabla (y por tanto los cortes) no puede cambiar entre ejecuciones
+    private static final long[] GEAR = new SplittableRandom(0x46_72_61_67_6D_65_6E_74L).longs(256).toArray();
+    // Con el tamaño medio de 2^16 bytes: 2 bits más exigente antes del medio y 2 menos después,
+    // lo que concentra los tamaños alrededor del medio
+    private static final long MASCARA_ESTRICTA = mascara(Integer.numberOfTrailingZeros(TAMANO_MEDIO) + 2);
+    private static final long MASCARA_LAXA = mascara(Integer.numberOfTrailingZeros(TAMANO_MEDIO) - 2);
+
+    private FragmentadorContenido() {
+    }
+
+    @FunctionalInterface
+    public interface Receptor {
+        void recibir(byte[] fragmento) throws IOException;
+    }
+
+    /**
+     * Lee {@code entrada} hasta el final y entrega cada fragmento en orden. Solo retiene en
+     * memoria un fragmento máximo.
+     */
+    public static void fragmentar(InputStream entrada, Receptor receptor) throws IOException {
+        byte[] buffer = new byte[TAMANO_MAXIMO];
+        int lleno = entrada.readNBytes(buffer, 0, TAMANO_MAXIMO);
+        while (lleno > 0) {
+            int corte = corte(buffer, lleno);
+            byte[] fragmento = new byte[corte];
+            System.arraycopy(buffer, 0, fragmento, 0, corte);
+            receptor.recibir(fragmento);
+            System.arraycopy(buffer, corte, buffer, 0, lleno - corte);
+            lleno -= corte;
+            lleno += entrada.readNBytes(buffer, lleno, TAMANO_MAXIMO - lleno);
+        }
+    }
+
+    // Solo hay menos de TAMANO_MAXIMO bytes al final del flujo, y entonces el resto es el último fragmento
+    static int corte(byte[] datos, int longitud) {
+        if (longitud <= TAMANO_MINIMO) {
+            return longitud;
+        }
+        long huella = 0;
+        int normal = Math.min(TAMANO_MEDIO, longitud);
+        int i = TAMANO_MINIMO;
+        for (; i < normal; i++) {
+            huella = (huella << 1) + GEAR[datos[i] & 0xff];
+            if ((huella & MASCARA_ESTRICTA) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < longitud; i++) {
+            huella = (huella << 1) + GEAR[datos[i] & 0xff];
+            if ((huella & MASCARA_LAXA) == 0) {
+                return i + 1;
+            }
+        }
+        return longitud;
+    }
+
+    // Bits altos: con el desplazamiento a la izquierda son los que dependen de más bytes
+    private static long mascara(int bits) {
+        return -1L << (Long.SIZE - bits);
+    }
+}
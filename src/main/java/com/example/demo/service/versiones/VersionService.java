@@ -0,0 +1,271 @@
+package com.example.demo.service.versiones;
+
+import com.example.demo.config.VersionesProperties;
+import com.example.demo.dto.ResultadoPoda;
+import com.example.demo.dto.VersionResumen;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Codec;
+import com.example.demo.entidad.Contenido;
+import com.example.demo.entidad.FragmentoVersion;
+import com.example.demo.entidad.VersionArchivo;
+import com.example.demo.exception.ArchivoNoEncontradoException;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.repository.FragmentoVersionRepository;
+import com.example.demo.repository.VersionArchivoRepository;
+import com.example.demo.service.ContenidoService;
+import com.example.demo.service.almacenamiento.ContenidoGuardado;
+import com.example.demo.service.almacenamiento.ContenidoLiberado;
+import com.example.demo.service.almacenamiento.EntradaContenido;
+import com.example.demo.service.integridad.CuarentenaContenido;
+import com.example.demo.utils.Mensajes;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Historial de versiones de cada archivo. La versión actual sigue guardada entera, como
+ * cualquier contenido, para que la descarga normal no cambie; al actualizar el archivo, la que
+ * deja de ser actual se parte con {@link FragmentadorContenido} y cada fragmento se guarda como
+ * un contenido más. Dos versiones parecidas comparten casi todos sus fragmentos, así que
+ * archivar una solo escribe los que cambiaron.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VersionService {
+
+    private final ArchivoRepository archivoRepository;
+    private final VersionArchivoRepository versionArchivoRepository;
+    private final FragmentoVersionRepository fragmentoVersionRepository;
+    private final ContenidoRepository contenidoRepository;
+    private final ContenidoService contenidoService;
+    private final CuarentenaContenido cuarentenaContenido;
+    private final VersionesProperties versionesProperties;
+    private final EntityManager entityManager;
+
+    /**
+     * Los datos de la versión actual de {@code archivo}, tomados antes de sustituir su contenido.
+     */
+    public VersionArchivo instantanea(Archivo archivo) {
+        return VersionArchivo.builder()
+                .archivoId(archivo.getId())
+                .numero(archivo.getNumeroVersion())
+                .nombreArchivo(archivo.getNombreArchivo())
+                .tipoArchivo(archivo.getTipoArchivo())
+                .descripcion(archivo.getDescripcion())
+                .tamano(archivo.getTamano())
+                .hashContenido(archivo.getHashContenido())
+                .fechaSubida(archivo.getFechaSubida())
+                .build();
+    }
+
+    /**
+     * Guarda como versión anterior el contenido de {@code version} y avanza el número de versión
+     * de {@code archivo}. Debe llamarse antes de liberar ese contenido. Si no se puede leer
+     * entero o no coincide con su hash no se archiva: la actualización sigue adelante.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void archivar(VersionArchivo version, Archivo archivo) {
+        if (!versionesProperties.isHabilitadas() || version.getHashContenido() == null) {
+            return;
+        }
+        Codec codec = contenidoRepository.findById(version.getHashContenido())
+                .map(Contenido::getCodec)
+                .orElse(Codec.NINGUNO);
+
+        List<FragmentoVersion> fragmentos = new ArrayList<>();
+        long[] bytesNuevos = {0};
+        String hashLeido;
+        try (EntradaContenido entrada = new EntradaContenido(
+                contenidoService.abrir(version.getHashContenido(), codec, 0), Long.MAX_VALUE, null)) {
+            FragmentadorContenido.fragmentar(entrada, fragmento -> {
+                ContenidoGuardado guardado = contenidoService.guardar(fragmento, version.getTipoArchivo());
+                if (!guardado.duplicado()) {
+                    bytesNuevos[0] += guardado.tamanoAlmacenado();
+                }
+                fragmentos.add(FragmentoVersion.builder()
+                        .posicion(fragmentos.size())
+                        .hashFragmento(guardado.hash())
+                        .tamano(fragmento.length)
+                        .build());
+            });
+            hashLeido = entrada.hash();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            log.warn("No se archiva la versión {} del archivo {}: no se encontró su contenido",
+                    version.getNumero(), version.getArchivoId());
+            liberar(fragmentos);
+            return;
+        } catch (IOException e) {
+            // Comprimido dañado (ZipException), truncado (EOFException) o ilegible
+            log.warn("No se archiva la versión {} del archivo {}: no se pudo leer su contenido",
+                    version.getNumero(), version.getArchivoId(), e);
+            liberar(fragmentos);
+            return;
+        }
+        if (!hashLeido.equals(version.getHashContenido())) {
+            log.warn("No se archiva la versión {} del archivo {}: su contenido no coincide con el hash {}",
+                    version.getNumero(), version.getArchivoId(), version.getHashContenido());
+            liberar(fragmentos);
+            return;
+        }
+
+        version.setFragmentos(fragmentos.size());
+        version.setBytesNuevos(bytesNuevos[0]);
+        version.setFechaArchivado(LocalDateTime.now());
+        versionArchivoRepository.save(version);
+        // persist y no save: con clave compuesta save hace merge, que consulta antes cada fila
+        for (FragmentoVersion fragmento : fragmentos) {
+            fragmento.setVersionId(version.getId());
+            entityManager.persist(fragmento);
+        }
+        archivo.setNumeroVersion(version.getNumero() + 1);
+
+        int maximo = versionesProperties.getMaximo();
+        if (maximo > 0) {
+            List<VersionArchivo> versiones = versionArchivoRepository.findByArchivoIdOrderByNumeroDesc(archivo.getId());
+            if (versiones.size() > maximo) {
+                eliminar(versiones.subList(maximo, versiones.size()).stream().map(VersionArchivo::getId).toList());
+            }
+        }
+    }
+
+    /**
+     * La versión actual primero y después las anteriores, de la más reciente a la más antigua.
+     */
+    @Transactional(readOnly = true)
+    public List<VersionResumen> listar(Long archivoId) {
+        Archivo archivo = archivoRepository.findById(archivoId)
+                .orElseThrow(() -> new ArchivoNoEncontradoException(
+                        String.format(Mensajes.ARCHIVO_NO_ENCONTRADO_POR_ID, archivoId)));
+        List<VersionResumen> versiones = new ArrayList<>();
+        versiones.add(new VersionResumen(archivo.getNumeroVersion(), true, archivo.getNombreArchivo(),
+                archivo.getTipoArchivo(), archivo.getTamano(), archivo.getHashContenido(), archivo.getFechaSubida(),
+                null, 0, archivo.getTamanoAlmacenado() != null ? archivo.getTamanoAlmacenado() : archivo.getTamano()));
+        for (VersionArchivo version : versionArchivoRepository.findByArchivoIdOrderByNumeroDesc(archivoId)) {
+            versiones.add(new VersionResumen(version.getNumero(), false, version.getNombreArchivo(),
+                    version.getTipoArchivo(), version.getTamano(), version.getHashContenido(), version.getFechaSubida(),
+                    version.getFechaArchivado(), version.getFragmentos(), version.getBytesNuevos()));
+        }
+        return versiones;
+    }
+
+    @Transactional(readOnly = true)
+    public VersionArchivo obtenerVersion(Long archivoId, int numero) {
+        return versionArchivoRepository.findByArchivoIdAndNumero(archivoId, numero)
+                .orElseThrow(() -> new ArchivoNoEncontradoException(
+                        String.format(Mensajes.VERSION_NO_ENCONTRADA, numero, archivoId)));
+    }
+
+    /**
+     * El contenido de una versión anterior. El primer fragmento se abre aquí y el resto según se
+     * leen, fuera de la transacción; la lectura falla si no coincide con el hash de la versión.
+     */
+    @Transactional(readOnly = true)
+    public InputStream abrir(VersionArchivo version) {
+        List<FragmentoVersion> fragmentos = fragmentoVersionRepository.findByVersionIdOrderByPosicionAsc(version.getId());
+        Set<String> hashes = new HashSet<>();
+        for (FragmentoVersion fragmento : fragmentos) {
+            if (hashes.add(fragmento.getHashFragmento()) && cuarentenaContenido.contiene(fragmento.getHashFragmento())) {
+                throw new ArchivoNoEncontradoException(
+                        String.format(Mensajes.CONTENIDO_EN_CUARENTENA, version.getArchivoId()));
+            }
+        }
+        Map<String, Codec> codecs = new HashMap<>();
+        for (Contenido contenido : contenidoRepository.findAllById(hashes)) {
+            codecs.put(contenido.getHash(), contenido.getCodec() != null ? contenido.getCodec() : Codec.NINGUNO);
+        }
+        EntradaFragmentos entrada = new EntradaFragmentos(contenidoService, fragmentos, codecs,
+                version.getHashContenido(), version.getTamano());
+        try {
+            entrada.abrirPrimero();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            throw new ArchivoNoEncontradoException(String.format(Mensajes.CONTENIDO_NO_ENCONTRADO, version.getArchivoId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entrada;
+    }
+
+    @Transactional
+    public ResultadoPoda eliminarVersion(Long archivoId, int numero) {
+        Archivo archivo = bloquear(archivoId);
+        if (numero == archivo.getNumeroVersion()) {
+            throw new ArchivoNoValidoException(String.format(Mensajes.VERSION_ACTUAL_NO_ELIMINABLE, numero));
+        }
+        VersionArchivo version = obtenerVersion(archivoId, numero);
+        return resultado(1, eliminar(List.of(version.getId())));
+    }
+
+    /**
+     * Deja solo las {@code conservar} versiones anteriores más recientes; con 0 queda únicamente
+     * la actual.
+     */
+    @Transactional
+    public ResultadoPoda podar(Long archivoId, int conservar) {
+        if (conservar < 0) {
+            throw new ArchivoNoValidoException(Mensajes.VERSIONES_CONSERVAR_NEGATIVO);
+        }
+        bloquear(archivoId);
+        List<VersionArchivo> versiones = versionArchivoRepository.findByArchivoIdOrderByNumeroDesc(archivoId);
+        if (versiones.size() <= conservar) {
+            return resultado(0, ContenidoLiberado.NADA);
+        }
+        List<Long> ids = versiones.subList(conservar, versiones.size()).stream().map(VersionArchivo::getId).toList();
+        return resultado(ids.size(), eliminar(ids));
+    }
+
+    /**
+     * Elimina el historial de archivos que se están eliminando, en la misma transacción.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ContenidoLiberado eliminarDeArchivos(Collection<Long> archivoIds) {
+        return eliminar(versionArchivoRepository.findIdsPorArchivos(archivoIds));
+    }
+
+    // Bloquea el archivo para no podar mientras una actualización archiva otra versión
+    private Archivo bloquear(Long archivoId) {
+        return archivoRepository.findConBloqueo(archivoId)
+                .orElseThrow(() -> new ArchivoNoEncontradoException(
+                        String.format(Mensajes.ARCHIVO_NO_ENCONTRADO_POR_ID, archivoId)));
+    }
+
+    // Los fragmentos ya guardados de una versión que al final no se archiva
+    private void liberar(List<FragmentoVersion> fragmentos) {
+        if (!fragmentos.isEmpty()) {
+            contenidoService.liberarVarios(fragmentos.stream().map(FragmentoVersion::getHashFragmento).toList());
+        }
+    }
+
+    private ContenidoLiberado eliminar(List<Long> versionIds) {
+        if (versionIds.isEmpty()) {
+            return ContenidoLiberado.NADA;
+        }
+        List<String> hashes = fragmentoVersionRepository.findHashesPorVersiones(versionIds);
+        fragmentoVersionRepository.eliminarPorVersiones(versionIds);
+        versionArchivoRepository.eliminarPorIds(versionIds);
+        return contenidoService.liberarVarios(hashes);
+    }
+
+    private static ResultadoPoda resultado(int versiones, ContenidoLiberado liberado) {
+        return new ResultadoPoda(versiones, liberado.contenidos(), liberado.bytes());
+    }
+}
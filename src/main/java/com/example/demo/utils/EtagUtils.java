@@ -0,0 +1,28 @@
+package com.example.demo.utils;
+
+public class EtagUtils {
+
+    private static final String PREFIJO_DEBIL = "W/";
+
+    private EtagUtils() {
+    }
+
+    /**
+     * Comparación débil de If-None-Match (RFC 9110): ignora el prefijo {@code W/} y acepta
+     * {@code *}.
+     */
+    public static boolean coincide(String ifNoneMatch, String etag) {
+        String buscado = sinPrefijoDebil(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || sinPrefijoDebil(valor).equals(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sinPrefijoDebil(String etag) {
+        return etag.startsWith(PREFIJO_DEBIL) ? etag.substring(PREFIJO_DEBIL.length()) : etag;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class HashUtils {
+
+    public static final String ALGORITMO = "SHA-256";
+
+    private HashUtils() {
+    }
+
+    public static MessageDigest nuevoDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITMO);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITMO + " no disponible", e);
+        }
+    }
+
+    public static String sha256(byte[] datos) {
+        return HexFormat.of().formatHex(nuevoDigest().digest(datos));
+    }
+}
@@ -8,6 +8,7 @@ public  class Mensajes {
     public static final String TIPO_VACIO = "El tipo de archivo no puede estar vacío";
     public static final String ARCHIVOS_NO_ENCONTRADOS_POR_TIPO = "No se encontraron archivos del tipo: ";
     public static final String TAMANO_NEGATIVO = "El tamaño mínimo no puede ser negativo";
+    public static final String TAMANO_MAXIMO_NEGATIVO = "El tamaño máximo no puede ser negativo";
     public static final String ARCHIVOS_NO_ENCONTRADOS_POR_TAMANO = "No se encontraron archivos con tamaño mayor a ";
     public static final String FECHAS_NULAS = "Las fechas de inicio y fin no pueden ser nulas";
     public static final String FIN_ANTES_INICIO = "La fecha de fin no puede ser anterior a la fecha de inicio";
@@ -19,6 +20,33 @@ public  class Mensajes {
     public static final String TIPO_ARCHIVO_VACIO = "El tipo de archivo no puede estar vacío";
     public static final String NOMBRE_BUSQUEDA_VACIO = "El nombre de búsqueda no puede estar vacío";
     public static final String ARCHIVOS_NO_ENCONTRADOS_POR_NOMBRE = "No se encontraron archivos que contengan: %s";
+    public static final String CONTENIDO_NO_ENCONTRADO = "No se encontró el contenido del archivo con id: %d";
+    public static final String LIMITE_PAGINA_INVALIDO = "El límite de la página debe estar entre 1 y %d";
+    public static final String CURSOR_INVALIDO = "El cursor de paginación no es válido";
+    public static final String PAGINA_NEGATIVA = "El número de página no puede ser negativo";
+    public static final String TAMANO_MAXIMO_MENOR_MINIMO = "El tamaño máximo no puede ser menor que el mínimo";
+    public static final String SESION_SUBIDA_NO_ENCONTRADA = "No existe la sesión de subida: %s";
+    public static final String FRAGMENTO_FUERA_DE_RANGO = "El fragmento en la posición %d queda fuera del tamaño declarado (%d bytes)";
+    public static final String FRAGMENTO_EXCEDE_TAMANO = "El fragmento supera el tamaño permitido (%d bytes)";
+    public static final String FRAGMENTO_VACIO = "El fragmento no puede estar vacío";
+    public static final String FRAGMENTO_CHECKSUM_INVALIDO = "El checksum del fragmento no coincide: esperado %s, calculado %s";
+    public static final String FRAGMENTO_EN_CONFLICTO = "El fragmento en la posición %d llegó a la vez con otro contenido; vuelva a enviarlo";
+    public static final String FRAGMENTO_YA_RECIBIDO = "El fragmento en la posición %d ya se recibió con otro contenido";
+    public static final String SUBIDA_INCOMPLETA = "La subida está incompleta: recibidos %d de %d bytes";
+    public static final String LOTE_VACIO = "El lote no contiene archivos";
+    public static final String LOTE_EXCEDE_ARCHIVOS = "El lote supera el máximo de %d archivos";
+    public static final String ZIP_SIN_ARCHIVOS = "No se encontraron archivos para el ZIP";
+    public static final String ZIP_SIN_SELECCION = "Selecciona al menos un archivo para descargar el ZIP";
+    public static final String ZIP_EXCEDE_ARCHIVOS = "El ZIP no puede incluir más de %d archivos";
+    public static final String DESCRIPCION_VACIA = "La descripción es obligatoria";
+    public static final String SUBIDA_CHECKSUM_INVALIDO = "El hash del archivo ensamblado no coincide: esperado %s, calculado %s";
+    public static final String SUBIDAS_SATURADAS = "El servidor está procesando demasiadas subidas; reintente en %d segundos";
+    public static final String MINIATURA_NO_DISPONIBLE = "No hay miniatura disponible para el archivo con id: %d";
+    public static final String CONTENIDO_EN_CUARENTENA = "El contenido del archivo con id %d no superó la verificación de integridad y está en cuarentena";
+    public static final String VERSION_NO_ENCONTRADA = "No existe la versión %d del archivo con id: %d";
+    public static final String VERSION_ACTUAL_NO_ELIMINABLE = "La versión %d es la actual del archivo; solo se eliminan versiones anteriores";
+    public static final String VERSIONES_CONSERVAR_NEGATIVO = "El número de versiones a conservar no puede ser negativo";
+    public static final String ELIMINACION_SIN_CRITERIO = "Indique los ids o algún filtro de los archivos a eliminar";
 
 
 
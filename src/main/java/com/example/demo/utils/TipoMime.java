@@ -0,0 +1,104 @@
+package com.example.demo.utils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Registro de los tipos MIME admitidos: nombre para mostrar, color y cómo se tratan. El tipo se
+ * normaliza al recibir el archivo (minúsculas, sin parámetros, alias al nombre canónico), así que
+ * lo guardado en {@code archivos.tipo_archivo} se resuelve con una búsqueda exacta en un mapa.
+ */
+public enum TipoMime {
+
+    PDF("application/pdf", "PDF", "#e74c3c", false, true),
+    PNG("image/png", "Imagen PNG", "#3498db", true, true),
+    JPEG("image/jpeg", "Imagen JPEG", "#3498db", true, true, "image/jpg", "image/pjpeg"),
+    WORD("application/msword", "Word", "#2ecc71", false, false),
+    WORD_OOXML("application/vnd.openxmlformats-officedocument.wordprocessingml.document", "Word", "#2ecc71", true, false),
+    EXCEL("application/vnd.ms-excel", "Excel", "#f39c12", false, false),
+    EXCEL_OOXML("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "Excel", "#f39c12", true, false),
+    POWERPOINT("application/vnd.ms-powerpoint", "PowerPoint", "#9b59b6", false, false),
+    POWERPOINT_OOXML("application/vnd.openxmlformats-officedocument.presentationml.presentation", "PowerPoint", "#9b59b6", true, false);
+
+    private static final Map<String, TipoMime> POR_MIME = new HashMap<>();
+
+    static {
+        for (TipoMime tipo : values()) {
+            POR_MIME.put(tipo.mime, tipo);
+            for (String alias : tipo.alias) {
+                POR_MIME.put(alias, tipo);
+            }
+        }
+    }
+
+    private final String mime;
+    private final String nombre;
+    private final String color;
+    // Formatos que ya van comprimidos: en el ZIP se guardan sin volver a comprimir
+    private final boolean comprimido;
+    // De los PDF, la miniatura es la primera página
+    private final boolean conMiniatura;
+    private final String[] alias;
+
+    TipoMime(String mime, String nombre, String color, boolean comprimido, boolean conMiniatura, String... alias) {
+        this.mime = mime;
+        this.nombre = nombre;
+        this.color = color;
+        this.comprimido = comprimido;
+        this.conMiniatura = conMiniatura;
+        this.alias = alias;
+    }
+
+    /**
+     * Tipo de un valor ya normalizado, como el guardado en un archivo.
+     */
+    public static Optional<TipoMime> desde(String mime) {
+        return mime == null ? Optional.empty() : Optional.ofNullable(POR_MIME.get(mime));
+    }
+
+    /**
+     * Tipo de un Content-Type recibido tal cual ({@code IMAGE/JPG; charset=binary}).
+     */
+    public static Optional<TipoMime> reconocer(String tipoRecibido) {
+        return desde(normalizar(tipoRecibido));
+    }
+
+    /**
+     * Forma con la que se guarda y se consulta un tipo: la canónica si está registrado y, si no,
+     * en minúsculas y sin parámetros. Nulo si viene vacío.
+     */
+    public static String normalizar(String tipoRecibido) {
+        if (tipoRecibido == null) {
+            return null;
+        }
+        int parametros = tipoRecibido.indexOf(';');
+        String tipo = (parametros >= 0 ? tipoRecibido.substring(0, parametros) : tipoRecibido).trim().toLowerCase(Locale.ROOT);
+        if (tipo.isEmpty()) {
+            return null;
+        }
+        TipoMime registrado = POR_MIME.get(tipo);
+        return registrado != null ? registrado.mime : tipo;
+    }
+
+    public String getMime() {
+        return mime;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public boolean isComprimido() {
+        return comprimido;
+    }
+
+    public boolean isConMiniatura() {
+        return conMiniatura;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import com.example.demo.dto.FiltroArchivos;
+import com.example.demo.dto.ResultadoEliminacion;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Contenido;
+import com.example.demo.entidad.EstadisticaDiaria;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.service.ArchivoService;
+import com.example.demo.service.EliminacionService;
+import com.example.demo.service.EstadisticasService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Eliminación masiva por la API: qué peticiones se rechazan antes de borrar nada y qué se
+ * descuenta al borrar.
+ */
+@SpringBootTest(properties = "archivos.integridad.habilitada=false")
+class EliminacionesTests {
+
+    private static final String PDF = "application/pdf";
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Autowired
+    private EliminacionService eliminacionService;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private ArchivoRepository archivoRepository;
+
+    @Autowired
+    private ContenidoRepository contenidoRepository;
+
+    @Test
+    void sinIdsNiFiltrosOConFiltrosIncoherentesNoSeEliminaNada() throws IOException {
+        subir("rechazo.pdf", PDF, "%PDF-1.4 rechazo");
+        long archivos = archivoRepository.count();
+
+        assertThrows(ArchivoNoValidoException.class, () -> eliminacionService.eliminarVarios(null, FiltroArchivos.vacio()));
+        assertThrows(ArchivoNoValidoException.class, () -> eliminacionService.eliminarVarios(List.of(), FiltroArchivos.vacio()));
+        assertThrows(ArchivoNoValidoException.class, () -> eliminacionService.eliminarVarios(null, filtroTamano(-1L, null)));
+        assertThrows(ArchivoNoValidoException.class, () -> eliminacionService.eliminarVarios(null, filtroTamano(null, -1L)));
+        assertThrows(ArchivoNoValidoException.class, () -> eliminacionService.eliminarVarios(null, filtroTamano(100L, 10L)));
+
+        assertEquals(archivos, archivoRepository.count());
+    }
+
+    @Test
+    void conIdsYFiltroSoloSeEliminaLaInterseccionYSeDescuenta() throws IOException {
+        String compartido = "%PDF-1.4 contenido compartido por dos archivos";
+        Archivo eliminado = subir("eliminado.pdf", PDF, compartido);
+        Archivo otroTipo = subir("otro-tipo.png", "image/png", "\u0089PNG\r\n\u001a\n eliminaciones");
+        Archivo fueraDeIds = subir("fuera-de-ids.pdf", PDF, compartido);
+        assertEquals(2, referencias(eliminado.getHashContenido()));
+        EstadisticaDiaria antes = estadisticaPdfDeHoy();
+
+        ResultadoEliminacion resultado = eliminacionService.eliminarVarios(List.of(eliminado.getId(), otroTipo.getId()),
+                new FiltroArchivos(PDF, null, null, null, null, null));
+
+        assertEquals(1, resultado.archivos());
+        assertEquals(eliminado.getTamano(), resultado.bytesArchivos());
+        // El contenido sigue en uso por el otro archivo: se descuenta pero no se libera
+        assertEquals(0, resultado.contenidosLiberados());
+        assertFalse(archivoRepository.existsById(eliminado.getId()));
+        assertTrue(archivoRepository.existsById(otroTipo.getId()));
+        assertTrue(archivoRepository.existsById(fueraDeIds.getId()));
+        assertEquals(1, referencias(eliminado.getHashContenido()));
+
+        EstadisticaDiaria despues = estadisticaPdfDeHoy();
+        assertEquals(antes.getArchivos() - 1, despues.getArchivos());
+        assertEquals(antes.getBytes() - eliminado.getTamano(), despues.getBytes());
+    }
+
+    private EstadisticaDiaria estadisticaPdfDeHoy() {
+        LocalDate hoy = LocalDate.now();
+        return estadisticasService.porDia(PDF, hoy, hoy).stream().findFirst()
+                .orElse(new EstadisticaDiaria(PDF, hoy, 0, 0));
+    }
+
+    private long referencias(String hash) {
+        return contenidoRepository.findById(hash).map(Contenido::getReferencias).orElse(0L);
+    }
+
+    private Archivo subir(String nombre, String tipo, String contenido) throws IOException {
+        return archivoService.guardarArchivo(new MockMultipartFile("archivo", nombre, tipo,
+                contenido.getBytes(StandardCharsets.ISO_8859_1)), "Eliminaciones");
+    }
+
+    private static FiltroArchivos filtroTamano(Long minimo, Long maximo) {
+        return new FiltroArchivos(null, minimo, maximo, null, null, null);
+    }
+}
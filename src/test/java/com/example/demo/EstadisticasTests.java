@@ -0,0 +1,66 @@
+package com.example.demo;
+
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.EstadisticaDiaria;
+import com.example.demo.repository.EstadisticaDiariaRepository;
+import com.example.demo.service.ArchivoService;
+import com.example.demo.service.EstadisticasService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reconstrucción de las estadísticas desde {@code archivos} al arrancar sobre un catálogo que
+ * aún no las tiene.
+ */
+@SpringBootTest(properties = "archivos.integridad.habilitada=false")
+class EstadisticasTests {
+
+    private static final LocalDate DIA = LocalDate.of(2001, 2, 3);
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private EstadisticaDiariaRepository estadisticaDiariaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void alArrancarSinEstadisticasSeReconstruyenDesdeLosArchivos() throws IOException {
+        Archivo primero = subir("uno.pdf", "application/pdf", "%PDF-1.4 estadisticas uno");
+        Archivo segundo = subir("dos.pdf", "application/pdf", "%PDF-1.4 estadisticas dos, algo más largo");
+        Archivo tercero = subir("tres.png", "image/png", "\u0089PNG\r\n\u001a\n estadisticas");
+        jdbcTemplate.update("update archivos set fecha_subida = ? where codigo in (?, ?, ?)",
+                DIA.atTime(12, 0), primero.getId(), segundo.getId(), tercero.getId());
+        jdbcTemplate.update("delete from estadisticas_diarias");
+
+        estadisticasService.run(new DefaultApplicationArguments());
+
+        List<EstadisticaDiaria> filas = estadisticasService.porDia(null, DIA, DIA);
+        assertEquals(2, filas.size());
+        assertEquals(new EstadisticaDiaria("application/pdf", DIA, 2, primero.getTamano() + segundo.getTamano()), filas.get(0));
+        assertEquals(new EstadisticaDiaria("image/png", DIA, 1, tercero.getTamano()), filas.get(1));
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from archivos", Long.class),
+                estadisticaDiariaRepository.findAll().stream().mapToLong(EstadisticaDiaria::getArchivos).sum());
+    }
+
+    private Archivo subir(String nombre, String tipo, String contenido) throws IOException {
+        return archivoService.guardarArchivo(new MockMultipartFile("archivo", nombre, tipo,
+                contenido.getBytes(StandardCharsets.ISO_8859_1)), "Estadísticas");
+    }
+}
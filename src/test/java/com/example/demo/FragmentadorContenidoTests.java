@@ -0,0 +1,97 @@
+package com.example.demo;
+
+import com.example.demo.service.versiones.FragmentadorContenido;
+import com.example.demo.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FragmentadorContenidoTests {
+
+    private static final int TAMANO_DATOS = 4 * 1024 * 1024;
+
+    @Test
+    void losFragmentosRespetanLosLimitesYUnidosDanLaEntrada() throws IOException {
+        byte[] datos = aleatorios(TAMANO_DATOS, 1);
+        List<byte[]> fragmentos = fragmentar(datos);
+
+        for (int i = 0; i < fragmentos.size(); i++) {
+            int tamano = fragmentos.get(i).length;
+            assertTrue(tamano <= FragmentadorContenido.TAMANO_MAXIMO, "fragmento " + i + " de " + tamano + " bytes");
+            // Solo el último puede quedarse por debajo del mínimo
+            if (i < fragmentos.size() - 1) {
+                assertTrue(tamano >= FragmentadorContenido.TAMANO_MINIMO, "fragmento " + i + " de " + tamano + " bytes");
+            }
+        }
+        assertArrayEquals(datos, unir(fragmentos));
+    }
+
+    @Test
+    void sinCortesPorContenidoSeCortaEnElMaximo() throws IOException {
+        // Bytes iguales: la huella no cambia y nunca cumple la máscara
+        byte[] datos = new byte[FragmentadorContenido.TAMANO_MAXIMO * 2 + 100];
+        List<byte[]> fragmentos = fragmentar(datos);
+
+        assertEquals(3, fragmentos.size());
+        assertEquals(FragmentadorContenido.TAMANO_MAXIMO, fragmentos.get(0).length);
+        assertEquals(FragmentadorContenido.TAMANO_MAXIMO, fragmentos.get(1).length);
+        assertEquals(100, fragmentos.get(2).length);
+        assertArrayEquals(datos, unir(fragmentos));
+    }
+
+    @Test
+    void losCortesSeRealineanTrasInsertarUnByte() throws IOException {
+        byte[] datos = aleatorios(TAMANO_DATOS, 2);
+        int posicion = TAMANO_DATOS / 2;
+        byte[] modificados = new byte[datos.length + 1];
+        System.arraycopy(datos, 0, modificados, 0, posicion);
+        modificados[posicion] = 42;
+        System.arraycopy(datos, posicion, modificados, posicion + 1, datos.length - posicion);
+
+        List<byte[]> originales = fragmentar(datos);
+        List<byte[]> nuevos = fragmentar(modificados);
+
+        Set<String> anteriores = new HashSet<>();
+        originales.forEach(fragmento -> anteriores.add(huella(fragmento)));
+        long distintos = nuevos.stream().filter(fragmento -> !anteriores.contains(huella(fragmento))).count();
+        // Solo cambian el fragmento que contiene el byte y, como mucho, los siguientes hasta realinear
+        assertTrue(distintos <= 2, distintos + " fragmentos distintos de " + nuevos.size());
+        assertTrue(originales.size() > 20, "muy pocos fragmentos para la prueba: " + originales.size());
+        assertArrayEquals(modificados, unir(nuevos));
+    }
+
+    private static List<byte[]> fragmentar(byte[] datos) throws IOException {
+        List<byte[]> fragmentos = new ArrayList<>();
+        FragmentadorContenido.fragmentar(new ByteArrayInputStream(datos), fragmentos::add);
+        return fragmentos;
+    }
+
+    private static byte[] unir(List<byte[]> fragmentos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        for (byte[] fragmento : fragmentos) {
+            salida.write(fragmento);
+        }
+        return salida.toByteArray();
+    }
+
+    private static byte[] aleatorios(int tamano, long semilla) {
+        byte[] datos = new byte[tamano];
+        new Random(semilla).nextBytes(datos);
+        return datos;
+    }
+
+    private static String huella(byte[] fragmento) {
+        return HashUtils.sha256(fragmento);
+    }
+}
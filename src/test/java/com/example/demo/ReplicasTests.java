@@ -0,0 +1,158 @@
+package com.example.demo;
+
+import com.example.demo.config.EnrutadorDataSource;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.service.ArchivoService;
+import com.example.demo.utils.ArchivoConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Enrutamiento con dos bases de datos H2 en memoria: la primaria, donde Hibernate crea el
+ * esquema, y una réplica que arranca vacía y a la que cada prueba copia el esquema.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicasTests.URL_PRIMARIA,
+        "archivos.replicas.habilitadas=true",
+        "archivos.replicas.lista[0].url=" + ReplicasTests.URL_REPLICA,
+        "archivos.replicas.permanencia-tras-escritura=1h",
+        "archivos.replicas.intervalo-salud=1h"
+})
+class ReplicasTests {
+
+    static final String URL_PRIMARIA = "jdbc:h2:mem:replicas_primaria;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String URL_REPLICA = "jdbc:h2:mem:replicas_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EnrutadorDataSource enrutadorDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void replicarEsquema() throws Exception {
+        Path script = Files.createTempFile("esquema", ".sql");
+        try {
+            ejecutar(URL_PRIMARIA, "script nodata to '" + script + "'");
+            ejecutar(URL_REPLICA, "drop all objects", "runscript from '" + script + "'");
+        } finally {
+            Files.delete(script);
+        }
+        enrutadorDataSource.comprobarReplicas();
+    }
+
+    @AfterEach
+    void terminarPeticion() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void lasLecturasVanALaReplicaYLasEscriturasALaPrimaria() {
+        comoCliente("10.0.0.1");
+        assertEquals("replicas_replica", baseDeDatos(true));
+        assertEquals("replicas_primaria", baseDeDatos(false));
+    }
+
+    @Test
+    void quienAcabaDeEscribirLeeDeLaPrimaria() {
+        comoCliente("10.0.0.2");
+        baseDeDatos(false);
+        assertEquals("replicas_primaria", baseDeDatos(true));
+
+        comoCliente("10.0.0.3");
+        assertEquals("replicas_replica", baseDeDatos(true));
+    }
+
+    @Test
+    void unaReplicaCaidaDejaLasLecturasEnLaPrimaria() throws SQLException {
+        comoCliente("10.0.0.4");
+        ejecutar(URL_REPLICA, "drop all objects");
+        enrutadorDataSource.comprobarReplicas();
+
+        assertFalse(enrutadorDataSource.estado().get(0).sana());
+        assertEquals("replicas_primaria", baseDeDatos(true));
+    }
+
+    @Test
+    void loLeidoDeUnaReplicaNoSeCachea() throws Exception {
+        comoCliente("10.0.0.5");
+        Archivo archivo = archivoService.guardarArchivo(new MockMultipartFile("archivo", "replica.pdf",
+                "application/pdf", "%PDF-1.4 replica".getBytes()), "Réplica");
+        copiarDatosAReplica();
+        Cache cache = cacheManager.getCache(ArchivoConstants.CACHE_ARCHIVOS);
+        cache.evict(archivo.getId());
+
+        comoCliente("10.0.0.6");
+        assertEquals(archivo.getNombreArchivo(), archivoService.obtenerArchivo(archivo.getId()).getNombreArchivo());
+        assertNull(cache.get(archivo.getId()));
+
+        comoCliente("10.0.0.5");
+        archivoService.obtenerArchivo(archivo.getId());
+        assertNotNull(cache.get(archivo.getId()));
+    }
+
+    private void copiarDatosAReplica() throws Exception {
+        Path script = Files.createTempFile("datos", ".sql");
+        try {
+            ejecutar(URL_PRIMARIA, "script to '" + script + "'");
+            ejecutar(URL_REPLICA, "drop all objects", "runscript from '" + script + "'");
+        } finally {
+            Files.delete(script);
+        }
+        enrutadorDataSource.comprobarReplicas();
+    }
+
+    private String baseDeDatos(boolean soloLectura) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(soloLectura);
+        return transaccion.execute(estado -> jdbcTemplate.queryForObject("select database()", String.class)).toLowerCase();
+    }
+
+    private static void comoCliente(String direccion) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setRemoteAddr(direccion);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(peticion));
+    }
+
+    private static void ejecutar(String url, String... sentencias) throws SQLException {
+        try (Connection conexion = DriverManager.getConnection(url, "sa", "");
+             Statement sentencia = conexion.createStatement()) {
+            for (String sql : sentencias) {
+                sentencia.execute(sql);
+            }
+        }
+    }
+}
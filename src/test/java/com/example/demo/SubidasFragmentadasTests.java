@@ -0,0 +1,170 @@
+package com.example.demo;
+
+import com.example.demo.dto.EstadoSesionSubida;
+import com.example.demo.dto.RangoRecibido;
+import com.example.demo.dto.SolicitudSesionSubida;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.exception.ArchivoNoEncontradoException;
+import com.example.demo.exception.ArchivoNoValidoException;
+import com.example.demo.exception.FragmentoEnConflictoException;
+import com.example.demo.repository.ArchivoRepository;
+import com.example.demo.repository.SesionSubidaRepository;
+import com.example.demo.service.SubidaFragmentadaService;
+import com.example.demo.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Protocolo de las subidas reanudables: fragmentos en cualquier orden, reenvíos, checksums por
+ * fragmento y del archivo completo, y limpieza de las sesiones abandonadas.
+ */
+@SpringBootTest(properties = {
+        "archivos.integridad.habilitada=false",
+        "archivos.subida.directorio=" + SubidasFragmentadasTests.DIRECTORIO
+})
+class SubidasFragmentadasTests {
+
+    static final String DIRECTORIO = "target/subidas-pruebas";
+    private static final int FRAGMENTO = 40 * 1024;
+
+    @Autowired
+    private SubidaFragmentadaService subidaFragmentadaService;
+
+    @Autowired
+    private SesionSubidaRepository sesionSubidaRepository;
+
+    @Autowired
+    private ArchivoRepository archivoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void losFragmentosDesordenadosSeEnsamblanEnElArchivo() throws IOException {
+        byte[] datos = pdf(100 * 1024, 11);
+        String id = crearSesion(datos.length);
+
+        enviar(id, datos, 2);
+        EstadoSesionSubida estado = enviar(id, datos, 0);
+        assertEquals(List.of(new RangoRecibido(0, FRAGMENTO), new RangoRecibido(2 * FRAGMENTO, datos.length)), estado.recibidos());
+        // Sin todos los fragmentos no se puede finalizar
+        assertThrows(ArchivoNoValidoException.class, () -> subidaFragmentadaService.finalizar(id, null));
+
+        estado = enviar(id, datos, 1);
+        assertEquals(datos.length, estado.bytesRecibidos());
+        assertEquals(List.of(new RangoRecibido(0, datos.length)), estado.recibidos());
+
+        Archivo archivo = subidaFragmentadaService.finalizar(id, HashUtils.sha256(datos));
+
+        assertEquals(HashUtils.sha256(datos), archivo.getHashContenido());
+        assertEquals(datos.length, archivo.getTamano());
+        assertFalse(sesionSubidaRepository.existsById(id));
+        assertFalse(Files.exists(Path.of(DIRECTORIO, id + ".part")));
+    }
+
+    @Test
+    void unReenvioIdenticoSeAceptaYUnoDistintoDa409() throws IOException {
+        byte[] datos = pdf(100 * 1024, 12);
+        String id = crearSesion(datos.length);
+        enviar(id, datos, 0);
+
+        EstadoSesionSubida estado = enviar(id, datos, 0);
+        assertEquals(FRAGMENTO, estado.bytesRecibidos());
+
+        byte[] distinto = Arrays.copyOf(fragmento(datos, 0), FRAGMENTO);
+        distinto[100] ^= 1;
+        assertThrows(FragmentoEnConflictoException.class, () ->
+                subidaFragmentadaService.recibirFragmento(id, 0, new ByteArrayInputStream(distinto), null));
+
+        // El fragmento recibido no se tocó: el archivo sigue ensamblándose con los bytes buenos
+        enviar(id, datos, 1);
+        enviar(id, datos, 2);
+        assertEquals(HashUtils.sha256(datos), subidaFragmentadaService.finalizar(id, HashUtils.sha256(datos)).getHashContenido());
+    }
+
+    @Test
+    void unFragmentoConOtroChecksumNoCuentaComoRecibido() throws IOException {
+        byte[] datos = pdf(100 * 1024, 13);
+        String id = crearSesion(datos.length);
+
+        assertThrows(ArchivoNoValidoException.class, () -> subidaFragmentadaService.recibirFragmento(id, 0,
+                new ByteArrayInputStream(fragmento(datos, 0)), HashUtils.sha256(new byte[1])));
+
+        assertEquals(0, subidaFragmentadaService.obtenerEstado(id).bytesRecibidos());
+    }
+
+    @Test
+    void siElHashDelArchivoNoCoincideNoSeGuardaNada() throws IOException {
+        byte[] datos = pdf(100 * 1024, 14);
+        String id = crearSesion(datos.length);
+        for (int i = 0; i < 3; i++) {
+            enviar(id, datos, i);
+        }
+        long archivos = archivoRepository.count();
+
+        assertThrows(ArchivoNoValidoException.class, () -> subidaFragmentadaService.finalizar(id, HashUtils.sha256(new byte[1])));
+
+        assertEquals(archivos, archivoRepository.count());
+        assertEquals(0, (long) jdbcTemplate.queryForObject("select count(*) from contenidos where hash = ?",
+                Long.class, HashUtils.sha256(datos)));
+        // La sesión sigue abierta para finalizarla con el hash correcto
+        assertEquals(datos.length, subidaFragmentadaService.obtenerEstado(id).bytesRecibidos());
+    }
+
+    @Test
+    void lasSesionesExpiradasSeEliminanConSuFichero() throws IOException {
+        byte[] datos = pdf(100 * 1024, 15);
+        String id = crearSesion(datos.length);
+        enviar(id, datos, 0);
+        Path temporal = Path.of(DIRECTORIO, id + ".part");
+        assertTrue(Files.exists(temporal));
+
+        jdbcTemplate.update("update sesiones_subida set fecha_expiracion = ? where id = ?", LocalDateTime.now().minusMinutes(1), id);
+        assertThrows(ArchivoNoEncontradoException.class, () -> subidaFragmentadaService.obtenerEstado(id));
+        subidaFragmentadaService.limpiarSesionesExpiradas();
+
+        assertFalse(sesionSubidaRepository.existsById(id));
+        assertEquals(0, (long) jdbcTemplate.queryForObject("select count(*) from fragmentos_subida where sesion_id = ?", Long.class, id));
+        assertFalse(Files.exists(temporal));
+    }
+
+    private String crearSesion(long tamano) {
+        return subidaFragmentadaService.crearSesion(
+                new SolicitudSesionSubida("fragmentado.pdf", "application/pdf", tamano, "Subida por fragmentos")).id();
+    }
+
+    private EstadoSesionSubida enviar(String id, byte[] datos, int indice) throws IOException {
+        byte[] fragmento = fragmento(datos, indice);
+        return subidaFragmentadaService.recibirFragmento(id, (long) indice * FRAGMENTO,
+                new ByteArrayInputStream(fragmento), HashUtils.sha256(fragmento));
+    }
+
+    private static byte[] fragmento(byte[] datos, int indice) {
+        int desde = indice * FRAGMENTO;
+        return Arrays.copyOfRange(datos, desde, Math.min(datos.length, desde + FRAGMENTO));
+    }
+
+    private static byte[] pdf(int tamano, long semilla) {
+        byte[] datos = new byte[tamano];
+        new Random(semilla).nextBytes(datos);
+        byte[] cabecera = "%PDF-1.4\n".getBytes();
+        System.arraycopy(cabecera, 0, datos, 0, cabecera.length);
+        return datos;
+    }
+}
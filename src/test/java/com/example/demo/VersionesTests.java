@@ -0,0 +1,123 @@
+package com.example.demo;
+
+import com.example.demo.dto.ResultadoPoda;
+import com.example.demo.entidad.Archivo;
+import com.example.demo.entidad.Contenido;
+import com.example.demo.entidad.FragmentoVersion;
+import com.example.demo.entidad.VersionArchivo;
+import com.example.demo.repository.ContenidoRepository;
+import com.example.demo.repository.FragmentoVersionRepository;
+import com.example.demo.service.ArchivoService;
+import com.example.demo.service.versiones.VersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archivar, podar y las referencias de los fragmentos: los que comparten varias versiones
+ * sobreviven a la poda de una de ellas y los que solo tenía la podada se liberan.
+ */
+@SpringBootTest(properties = "archivos.integridad.habilitada=false")
+class VersionesTests {
+
+    private static final String TIPO = "application/pdf";
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Autowired
+    private VersionService versionService;
+
+    @Autowired
+    private FragmentoVersionRepository fragmentoVersionRepository;
+
+    @Autowired
+    private ContenidoRepository contenidoRepository;
+
+    @Test
+    void laPodaLiberaSoloLosFragmentosQueNoSeComparten() throws IOException {
+        byte[] v1 = pdf(1024 * 1024, 3);
+        byte[] v2 = v1.clone();
+        v2[v2.length / 2] ^= 1;
+        byte[] v3 = pdf(1024 * 1024, 4);
+
+        Archivo archivo = archivoService.guardarArchivo(subida(v1), "Versiones");
+        archivoService.actualizarArchivo(archivo.getId(), subida(v2), "Versiones");
+        archivoService.actualizarArchivo(archivo.getId(), subida(v3), "Versiones");
+
+        VersionArchivo version1 = versionService.obtenerVersion(archivo.getId(), 1);
+        VersionArchivo version2 = versionService.obtenerVersion(archivo.getId(), 2);
+        Set<String> fragmentos1 = hashes(version1);
+        Set<String> fragmentos2 = hashes(version2);
+        Set<String> compartidos = new HashSet<>(fragmentos1);
+        compartidos.retainAll(fragmentos2);
+        Set<String> soloVersion1 = new HashSet<>(fragmentos1);
+        soloVersion1.removeAll(fragmentos2);
+
+        // Cambiar un byte solo cambia uno o dos fragmentos
+        assertFalse(compartidos.isEmpty());
+        assertFalse(soloVersion1.isEmpty());
+        assertTrue(soloVersion1.size() <= 2, soloVersion1.size() + " fragmentos propios");
+        assertTrue(version2.getBytesNuevos() < v2.length / 2);
+        compartidos.forEach(hash -> assertEquals(2, referencias(hash)));
+        soloVersion1.forEach(hash -> assertEquals(1, referencias(hash)));
+        assertArrayEquals(v1, leer(version1));
+
+        ResultadoPoda poda = versionService.podar(archivo.getId(), 1);
+
+        assertEquals(1, poda.versiones());
+        assertEquals(soloVersion1.size(), poda.contenidosLiberados());
+        soloVersion1.forEach(hash -> assertFalse(contenidoRepository.existsById(hash)));
+        compartidos.forEach(hash -> assertEquals(1, referencias(hash)));
+        assertArrayEquals(v2, leer(versionService.obtenerVersion(archivo.getId(), 2)));
+
+        versionService.podar(archivo.getId(), 0);
+
+        fragmentos2.forEach(hash -> assertFalse(contenidoRepository.existsById(hash)));
+        assertEquals(1, referencias(archivoService.obtenerArchivo(archivo.getId()).getHashContenido()));
+    }
+
+    private Set<String> hashes(VersionArchivo version) {
+        Set<String> hashes = new HashSet<>();
+        List<FragmentoVersion> fragmentos = fragmentoVersionRepository.findByVersionIdOrderByPosicionAsc(version.getId());
+        fragmentos.forEach(fragmento -> hashes.add(fragmento.getHashFragmento()));
+        assertEquals(version.getFragmentos(), fragmentos.size());
+        return hashes;
+    }
+
+    private long referencias(String hash) {
+        return contenidoRepository.findById(hash).map(Contenido::getReferencias).orElse(0L);
+    }
+
+    private byte[] leer(VersionArchivo version) throws IOException {
+        try (InputStream entrada = versionService.abrir(version)) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    private static MockMultipartFile subida(byte[] datos) {
+        return new MockMultipartFile("archivo", "versiones.pdf", TIPO, datos);
+    }
+
+    // Aleatorios para que ningún fragmento se repita dentro de la versión ni entre pruebas
+    private static byte[] pdf(int tamano, long semilla) {
+        byte[] datos = new byte[tamano];
+        new Random(semilla).nextBytes(datos);
+        byte[] cabecera = "%PDF-1.4\n".getBytes();
+        System.arraycopy(cabecera, 0, datos, 0, cabecera.length);
+        return datos;
+    }
+}